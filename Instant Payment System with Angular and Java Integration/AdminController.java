@@ -1,14 +1,28 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.AdminRequest;
+import com.example.demo.dto.AdminResponse;
+import com.example.demo.dto.OrganizationRequest;
+import com.example.demo.dto.OrganizationResponse;
+import com.example.demo.dto.ReconciliationReport;
+import com.example.demo.dto.UserResponse;
+import com.example.demo.dto.UserUpdateRequest;
 import com.example.demo.model.Admin;
 import com.example.demo.model.Organization;
 import com.example.demo.model.User;
 import com.example.demo.service.AdminService;
+import com.example.demo.service.HotAccountService;
+import com.example.demo.service.OrganizationRegistry;
+import com.example.demo.service.ReconciliationService;
+import com.example.demo.service.StatementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -17,64 +31,118 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private OrganizationRegistry organizationRegistry;
+
     @PostMapping("/register")
-    public ResponseEntity<Admin> registerAdmin(@RequestBody Admin admin) {
-        Admin newAdmin = adminService.registerNewAdmin(admin.getUsername(), admin.getEmail(), admin.getPassword());
-        return ResponseEntity.ok(newAdmin);
+    public ResponseEntity<AdminResponse> registerAdmin(@RequestBody AdminRequest request) {
+        Admin newAdmin = adminService.registerNewAdmin(request);
+        return ResponseEntity.ok(AdminResponse.from(newAdmin));
     }
 
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(adminService.getAllUsers());
+    public ResponseEntity<List<UserResponse>> getAllUsers() {
+        return ResponseEntity.ok(adminService.getAllUsers().stream().map(UserResponse::from).toList());
     }
 
     @GetMapping("/users/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserResponse> getUserById(@PathVariable String id) {
         return adminService.getUserById(id)
+                .map(UserResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/users/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User user) {
-        User updatedUser = adminService.updateUser(id, user);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<UserResponse> updateUser(@PathVariable String id, @RequestBody UserUpdateRequest request) {
+        User updatedUser = adminService.updateUser(id, request);
+        return ResponseEntity.ok(UserResponse.from(updatedUser));
     }
 
     @DeleteMapping("/users/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteUser(@PathVariable String id) {
         adminService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
 
+    // Spreads the account's inbound credits over the given number of balance buckets
+    @PostMapping("/users/{id}/hot-account")
+    public ResponseEntity<Void> enableHotAccount(@PathVariable String id, @RequestParam(defaultValue = "16") int buckets) {
+        hotAccountService.enable(id, buckets);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/users/{id}/hot-account")
+    public ResponseEntity<Void> disableHotAccount(@PathVariable String id) {
+        hotAccountService.disable(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Normally run by the month-end schedule; this re-runs a month and skips finished statements
+    @PostMapping("/statements/{month}/generate")
+    public ResponseEntity<Map<String, Integer>> generateStatements(@PathVariable String month) {
+        int written = statementService.generate(YearMonth.parse(month));
+        if (written < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(Map.of("written", written));
+    }
+
     @PostMapping("/organizations")
-    public ResponseEntity<Organization> createOrganization(@RequestBody Organization organization) {
-        Organization newOrganization = adminService.createOrganization(organization);
-        return ResponseEntity.ok(newOrganization);
+    public ResponseEntity<OrganizationResponse> createOrganization(@RequestBody OrganizationRequest request) {
+        Organization newOrganization = adminService.createOrganization(request);
+        return ResponseEntity.ok(OrganizationResponse.from(newOrganization));
     }
 
+    // Served from the registry snapshot; without paging parameters the whole list is returned
     @GetMapping("/organizations")
-    public ResponseEntity<List<Organization>> getAllOrganizations() {
-        return ResponseEntity.ok(adminService.getAllOrganizations());
+    public ResponseEntity<List<OrganizationResponse>> getAllOrganizations(@RequestParam(required = false) Integer page,
+                                                                          @RequestParam(defaultValue = "50") int size) {
+        if (page == null) {
+            return ResponseEntity.ok(organizationRegistry.all());
+        }
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(organizationRegistry.size()))
+                .body(organizationRegistry.page(Math.max(page, 0), Math.min(Math.max(size, 1), 500)));
     }
 
     @GetMapping("/organizations/{id}")
-    public ResponseEntity<Organization> getOrganizationById(@PathVariable Long id) {
-        return adminService.getOrganizationById(id)
+    public ResponseEntity<OrganizationResponse> getOrganizationById(@PathVariable String id) {
+        return organizationRegistry.get(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/organizations/{id}")
-    public ResponseEntity<Organization> updateOrganization(@PathVariable Long id, @RequestBody Organization organization) {
-        Organization updatedOrganization = adminService.updateOrganization(id, organization);
-        return ResponseEntity.ok(updatedOrganization);
+    public ResponseEntity<OrganizationResponse> updateOrganization(@PathVariable String id, @RequestBody OrganizationRequest request) {
+        Organization updatedOrganization = adminService.updateOrganization(id, request);
+        return ResponseEntity.ok(OrganizationResponse.from(updatedOrganization));
     }
 
     @DeleteMapping("/organizations/{id}")
-    public ResponseEntity<Void> deleteOrganization(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteOrganization(@PathVariable String id) {
         adminService.deleteOrganization(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    @GetMapping("/reconciliation")
+    public ResponseEntity<ReconciliationReport> getReconciliationReport() {
+        return reconciliationService.getLastReport()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.noContent().build());
+    }
+
+    @PostMapping("/reconciliation/run")
+    public ResponseEntity<ReconciliationReport> runReconciliation() {
+        return ResponseEntity.ok(reconciliationService.reconcile());
+    }
+}
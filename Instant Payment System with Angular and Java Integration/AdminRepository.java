@@ -5,6 +5,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface AdminRepository extends JpaRepository<Admin, Long> {
-    Admin findByUsername(String username);
+public interface AdminRepository extends JpaRepository<Admin, String> {
+    Admin findByEmail(String email);
 }
@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Admin;
+
+public record AdminResponse(String id, String email, String role) {
+
+    public static AdminResponse from(Admin admin) {
+        return new AdminResponse(admin.getId(), admin.getEmail(), admin.getRole());
+    }
+}
@@ -1,5 +1,11 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.AdminRequest;
+import com.example.demo.dto.OrganizationRequest;
+import com.example.demo.dto.UserUpdateRequest;
+import com.example.demo.event.OrganizationChangedEvent;
+import com.example.demo.event.UserChangedEvent;
+import com.example.demo.exception.ErrorCode;
 import com.example.demo.model.Admin;
 import com.example.demo.model.Organization;
 import com.example.demo.model.User;
@@ -7,6 +13,7 @@ import com.example.demo.repository.AdminRepository;
 import com.example.demo.repository.OrganizationRepository;
 import com.example.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -28,72 +35,102 @@ public class AdminService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    public Admin registerNewAdmin(String username, String email, String password) {
-        if (adminRepository.findByUsername(username) != null) {
-            throw new RuntimeException("Admin username already exists");
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public Admin registerNewAdmin(AdminRequest request) {
+        if (adminRepository.findByEmail(request.email()) != null) {
+            throw ErrorCode.ADMIN_EMAIL_TAKEN.exception();
         }
         Admin admin = new Admin();
-        admin.setUsername(username);
-        admin.setEmail(email);
-        admin.setPassword(passwordEncoder.encode(password));
+        admin.setEmail(request.email());
+        admin.setPasswordHash(passwordEncoder.encode(request.password()));
+        admin.setRole("ADMIN");
         return adminRepository.save(admin);
     }
 
-    public Optional<Admin> findByUsername(String username) {
-        return Optional.ofNullable(adminRepository.findByUsername(username));
+    public Optional<Admin> findByEmail(String email) {
+        return Optional.ofNullable(adminRepository.findByEmail(email));
     }
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
-    public Optional<User> getUserById(Long id) {
+    public Optional<User> getUserById(String id) {
         return userRepository.findById(id);
     }
 
-    public User updateUser(Long id, User updatedUser) {
+    public User updateUser(String id, UserUpdateRequest updatedUser) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        user.setEmail(updatedUser.getEmail());
-        user.setFirstName(updatedUser.getFirstName());
-        user.setLastName(updatedUser.getLastName());
-        user.setIdPassport(updatedUser.getIdPassport());
-        user.setPhysicalAddress(updatedUser.getPhysicalAddress());
-        user.setCellNumber(updatedUser.getCellNumber());
-        user.setBalance(updatedUser.getBalance());
-        return userRepository.save(user);
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
+        String previousEmail = user.getEmail();
+        String previousCellNumber = user.getCellNumber();
+        user.setEmail(updatedUser.email());
+        user.setFirstName(updatedUser.firstName());
+        user.setLastName(updatedUser.lastName());
+        user.setIdPassport(updatedUser.idPassport());
+        user.setPhysicalAddress(updatedUser.physicalAddress());
+        user.setCellNumber(updatedUser.cellNumber());
+        user.setBalance(updatedUser.balance());
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(),
+                List.of(previousEmail, saved.getEmail()), List.of(previousCellNumber, saved.getCellNumber())));
+        return saved;
     }
 
-    public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+    public void deleteUser(String id) {
+        userRepository.findById(id).ifPresent(user -> {
+            userRepository.delete(user);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(),
+                    List.of(user.getEmail()), List.of(user.getCellNumber())));
+        });
     }
 
-    public Organization createOrganization(Organization organization) {
-        if (organizationRepository.findByName(organization.getName()) != null) {
-            throw new RuntimeException("Organization with this name already exists");
+    public Organization createOrganization(OrganizationRequest request) {
+        if (organizationRepository.findByName(request.name()) != null) {
+            throw ErrorCode.ORGANIZATION_NAME_TAKEN.exception();
         }
-        return organizationRepository.save(organization);
+        Organization organization = new Organization();
+        apply(organization, request);
+        Organization saved = organizationRepository.save(organization);
+        eventPublisher.publishEvent(new OrganizationChangedEvent(saved.getId()));
+        return saved;
     }
 
     public List<Organization> getAllOrganizations() {
         return organizationRepository.findAll();
     }
 
-    public Optional<Organization> getOrganizationById(Long id) {
+    public Optional<Organization> getOrganizationById(String id) {
         return organizationRepository.findById(id);
     }
 
-    public Organization updateOrganization(Long id, Organization updatedOrganization) {
+    public Organization updateOrganization(String id, OrganizationRequest request) {
         Organization organization = organizationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Organization not found"));
-        organization.setName(updatedOrganization.getName());
-        organization.setAddress(updatedOrganization.getAddress());
-        organization.setContactEmail(updatedOrganization.getContactEmail());
-        return organizationRepository.save(organization);
+                .orElseThrow(() -> ErrorCode.ORGANIZATION_NOT_FOUND.exception());
+        Organization sameName = organizationRepository.findByName(request.name());
+        if (sameName != null && !sameName.getId().equals(id)) {
+            throw ErrorCode.ORGANIZATION_NAME_TAKEN.exception();
+        }
+        apply(organization, request);
+        Organization saved = organizationRepository.save(organization);
+        eventPublisher.publishEvent(new OrganizationChangedEvent(id));
+        return saved;
     }
 
-    public void deleteOrganization(Long id) {
+    public void deleteOrganization(String id) {
         organizationRepository.deleteById(id);
+        eventPublisher.publishEvent(new OrganizationChangedEvent(id));
+    }
+
+    private static void apply(Organization organization, OrganizationRequest request) {
+        organization.setName(request.name());
+        organization.setAddress(request.address());
+        organization.setContactPerson(request.contactPerson());
+        organization.setContactNumber(request.contactNumber());
+        organization.setLatitude(request.latitude());
+        organization.setLongitude(request.longitude());
     }
 }
 
@@ -1,11 +1,18 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.DirectoryEntry;
 import com.example.demo.dto.LoginRequest;
 import com.example.demo.dto.RegisterRequest;
+import com.example.demo.event.UserChangedEvent;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.security.JwtUtil;
+import com.example.demo.service.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,10 +22,13 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -36,8 +46,22 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<?> registerUser(@RequestBody RegisterRequest registerRequest, HttpServletRequest request,
+                                          HttpServletResponse response) throws IOException {
+        // A signup forwarded by another node already passed the cluster-wide checks
+        // and carries the id that node picked for it
+        String assignedUserId = shardRouter.isTrusted(request) ? request.getHeader(ShardRouter.USER_ID_HEADER) : null;
+
         if (userRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
             return new ResponseEntity<>("Email is already taken!", HttpStatus.BAD_REQUEST);
         }
@@ -48,7 +72,23 @@ public class AuthController {
             return new ResponseEntity<>("ID/Passport is already registered!", HttpStatus.BAD_REQUEST);
         }
 
+        if (shardRouter.isEnabled() && assignedUserId == null) {
+            if (shardRouter.locate(registerRequest.getEmail()).isPresent()) {
+                return new ResponseEntity<>("Email is already taken!", HttpStatus.BAD_REQUEST);
+            }
+            if (shardRouter.locate(registerRequest.getCellNumber()).isPresent()) {
+                return new ResponseEntity<>("Cell number is already registered!", HttpStatus.BAD_REQUEST);
+            }
+            assignedUserId = shardRouter.newUserId();
+            if (!shardRouter.isLocal(assignedUserId)) {
+                shardRouter.forward(request, objectMapper.writeValueAsBytes(registerRequest), response,
+                        shardRouter.ownerOf(assignedUserId), assignedUserId);
+                return null;
+            }
+        }
+
         User user = new User();
+        user.setId(assignedUserId);
         user.setEmail(registerRequest.getEmail());
         user.setPasswordHash(passwordEncoder.encode(registerRequest.getPassword()));
         user.setFirstName(registerRequest.getFirstName());
@@ -60,24 +100,40 @@ public class AuthController {
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
 
-        userRepository.save(user);
+        User saved = userRepository.save(user);
+        // Clears any negative directory entries left by earlier lookups of this address
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(),
+                List.of(saved.getEmail()), List.of(saved.getCellNumber())));
 
         return new ResponseEntity<>("User registered successfully!", HttpStatus.OK);
     }
 
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest, HttpServletRequest request,
+                                              HttpServletResponse response) throws IOException {
+        // Credentials are only held by the owning node
+        if (shardRouter.isEnabled() && !shardRouter.isForwarded(request)
+                && userRepository.findByEmail(loginRequest.getEmail()).isEmpty()) {
+            Optional<DirectoryEntry> owner = shardRouter.locate(loginRequest.getEmail());
+            if (owner.isPresent()) {
+                shardRouter.forward(request, objectMapper.writeValueAsBytes(loginRequest), response,
+                        shardRouter.ownerOf(owner.get().getUserId()), null);
+                return null;
+            }
+        }
+
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String jwt = jwtUtil.generateToken(userDetails.getUsername());
+        String userId = userRepository.findByEmail(userDetails.getUsername()).get().getId();
+        String jwt = jwtUtil.generateToken(userDetails.getUsername(), userId);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("token", jwt);
-        response.put("userId", userRepository.findByEmail(userDetails.getUsername()).get().getId());
+        Map<String, Object> body = new HashMap<>();
+        body.put("token", jwt);
+        body.put("userId", userId);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(body);
     }
 }
 
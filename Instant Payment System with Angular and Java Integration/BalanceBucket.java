@@ -0,0 +1,31 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One of K credit-only slices of a hot account's balance. The spendable balance is
+// users.balance plus every bucket; bucket amounts never go negative.
+@Entity
+@Table(name = "balance_buckets", indexes = {
+        @Index(name = "idx_balance_buckets_user", columnList = "userId")
+})
+@Data
+public class BalanceBucket {
+    // userId + "#" + bucketIndex
+    @Id
+    private String id;
+    @Column(nullable = false)
+    private String userId;
+    @Column(nullable = false)
+    private int bucketIndex;
+    @Column(nullable = false)
+    private BigDecimal amount = BigDecimal.ZERO;
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public static String idFor(String userId, int bucketIndex) {
+        return userId + "#" + bucketIndex;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.BalanceBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface BalanceBucketRepository extends JpaRepository<BalanceBucket, String> {
+
+    @Modifying
+    @Query("update BalanceBucket b set b.amount = b.amount + :amount, b.updatedAt = current_timestamp where b.id = :id")
+    int credit(@Param("id") String id, @Param("amount") BigDecimal amount);
+
+    // Row locks make consolidation atomic with respect to concurrent credits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from BalanceBucket b where b.userId = :userId")
+    List<BalanceBucket> lockByUserId(@Param("userId") String userId);
+
+    @Query("select coalesce(sum(b.amount), 0) from BalanceBucket b where b.userId = :userId")
+    BigDecimal sumByUserId(@Param("userId") String userId);
+
+    // userId, bucket total; accounts without buckets are absent
+    @Query("select b.userId, sum(b.amount) from BalanceBucket b where b.userId in :userIds group by b.userId")
+    List<Object[]> sumByUserIds(@Param("userIds") Collection<String> userIds);
+
+    @Modifying
+    @Query("delete from BalanceBucket b where b.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class BalanceMismatch {
+    private String userId;
+    private String email;
+    private BigDecimal expectedBalance;
+    private BigDecimal storedBalance;
+    private BigDecimal drift;
+}
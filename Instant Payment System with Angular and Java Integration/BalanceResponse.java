@@ -0,0 +1,6 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+
+public record BalanceResponse(String userId, BigDecimal balance) {
+}
@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import com.example.demo.event.UserChangedEvent;
+import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+
+// Read path for balances. Caffeine computes each key at most once at a time, so concurrent
+// misses for one user wait on a single query instead of each issuing their own. Writers
+// evict after commit; the short TTL only bounds staleness from writes this node cannot see.
+@Service
+public class BalanceService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${balance.cache.max-size:200000}")
+    private long maxSize;
+
+    @Value("${balance.cache.ttl-ms:5000}")
+    private long ttlMs;
+
+    // Optional so an unknown id is cached as absent rather than re-queried on every poll
+    private LoadingCache<String, Optional<BigDecimal>> balances;
+
+    @PostConstruct
+    void initCache() {
+        balances = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build(userId -> userRepository.findBalanceById(userId)
+                        .map(balance -> balance.add(hotAccountService.bucketTotal(userId))));
+        CaffeineCacheMetrics.monitor(meterRegistry, balances, "balances");
+    }
+
+    public Optional<BigDecimal> getBalance(String userId) {
+        return balances.get(userId);
+    }
+
+    // Call from inside the writing transaction. Evicting before commit would let a
+    // concurrent reader re-cache the old balance.
+    public void evictAfterCommit(String userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            balances.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                balances.invalidate(userId);
+            }
+        });
+    }
+
+    // Admin edits and deletes
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        evictAfterCommit(event.getUserId());
+    }
+}
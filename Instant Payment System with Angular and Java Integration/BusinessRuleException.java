@@ -0,0 +1,9 @@
+package com.example.demo.exception;
+
+// A request that is well-formed but breaks a rule: insufficient funds, self-transfer, risk block
+public class BusinessRuleException extends DomainException {
+
+    BusinessRuleException(ErrorCode code, String message) {
+        super(code, message);
+    }
+}
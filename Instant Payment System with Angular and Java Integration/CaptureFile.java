@@ -0,0 +1,205 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CapturedRequest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary layout of capture files. A header (magic, start time, snapshot file name) is followed
+// by records with varint-encoded numbers. Strings go through a per-file dictionary: methods,
+// paths, user ids, parameter names and short values are written in full once and referenced
+// by number afterwards, which keeps a typical transfer record to a couple of dozen bytes.
+// A file cut short by a crash reads back up to its last complete record.
+public final class CaptureFile {
+
+    private static final int MAGIC = 0x49504331; // "IPC1"
+    private static final int NULL = 0;
+    private static final int LITERAL = 1;
+    private static final int NEW_ENTRY = 2;
+    private static final int FIRST_REFERENCE = 3;
+    private static final int MAX_DICTIONARY = 65536;
+    private static final int MAX_DICTIONARY_VALUE = 64;
+
+    public static final String EXTENSION = ".ipc";
+
+    private CaptureFile() {
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        public Writer(Path file, long startEpochMillis, String snapshotName) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeLong(startEpochMillis);
+            writeBytes(snapshotName == null ? new byte[0] : snapshotName.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public void write(CapturedRequest request) throws IOException {
+            writeVarLong(Math.max(0, request.offsetNanos()));
+            writeVarLong(Math.max(0, request.durationNanos()));
+            writeVarLong(request.status());
+            writeString(request.method(), true);
+            writeString(request.path(), true);
+            writeString(request.userId(), true);
+            writeVarLong(request.parameters().size());
+            for (CapturedRequest.Parameter parameter : request.parameters()) {
+                writeString(parameter.name(), true);
+                writeString(parameter.value(), parameter.value() != null && parameter.value().length() <= MAX_DICTIONARY_VALUE);
+            }
+            writeString(request.body(), false);
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void writeString(String value, boolean shareable) throws IOException {
+            if (value == null) {
+                writeVarLong(NULL);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                writeVarLong(FIRST_REFERENCE + index);
+            } else if (shareable && dictionary.size() < MAX_DICTIONARY) {
+                dictionary.put(value, dictionary.size());
+                writeVarLong(NEW_ENTRY);
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            } else {
+                writeVarLong(LITERAL);
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            writeVarLong(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            writeVarLong(out, value);
+        }
+    }
+
+    public static final class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private final List<String> dictionary = new ArrayList<>();
+        private final long startEpochMillis;
+        private final String snapshotName;
+
+        public Reader(Path file) throws IOException {
+            this(Files.newInputStream(file));
+        }
+
+        public Reader(InputStream stream) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a capture file");
+            }
+            startEpochMillis = in.readLong();
+            String name = new String(readBytes(), StandardCharsets.UTF_8);
+            snapshotName = name.isEmpty() ? null : name;
+        }
+
+        public long startEpochMillis() {
+            return startEpochMillis;
+        }
+
+        public String snapshotName() {
+            return snapshotName;
+        }
+
+        // Null at the end of the file, including after a truncated final record
+        public CapturedRequest next() throws IOException {
+            try {
+                long offset = readVarLong(in);
+                long duration = readVarLong(in);
+                int status = (int) readVarLong(in);
+                String method = readString();
+                String path = readString();
+                String userId = readString();
+                int count = (int) readVarLong(in);
+                List<CapturedRequest.Parameter> parameters = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    parameters.add(new CapturedRequest.Parameter(readString(), readString()));
+                }
+                String body = readString();
+                return new CapturedRequest(offset, duration, status, method, path, userId, parameters, body);
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private String readString() throws IOException {
+            int tag = (int) readVarLong(in);
+            if (tag == NULL) {
+                return null;
+            }
+            if (tag >= FIRST_REFERENCE) {
+                return dictionary.get(tag - FIRST_REFERENCE);
+            }
+            String value = new String(readBytes(), StandardCharsets.UTF_8);
+            if (tag == NEW_ENTRY) {
+                dictionary.add(value);
+            }
+            return value;
+        }
+
+        private byte[] readBytes() throws IOException {
+            byte[] bytes = new byte[(int) readVarLong(in)];
+            in.readFully(bytes);
+            return bytes;
+        }
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "capture")
+@Data
+public class CaptureProperties {
+
+    private boolean enabled = false;
+    private String dir = "build/capture";
+    // Request URI prefixes to record; everything else, including /api/auth, is never captured
+    private List<String> paths = new ArrayList<>(List.of("/api/transactions/", "/api/users/", "/api/standing-orders",
+            "/api/statements/", "/api/outlets"));
+    // A new file, and a new database snapshot, every this many minutes
+    private int rotateMinutes = 60;
+    // Requests completed faster than the writer keeps up are dropped, never waited for
+    private int queueCapacity = 65536;
+    private int maxBodyBytes = 4096;
+    // Parameter and JSON field names whose values are replaced before anything is written
+    private List<String> redactFields = new ArrayList<>(List.of("password", "pin", "withdrawalPin", "token", "idPassport"));
+    // Parameter and JSON field names whose values are replaced by keyed pseudonyms, so requests
+    // still address the same, equally pseudonymized, accounts in the snapshot
+    private List<String> pseudonymizeFields = new ArrayList<>(List.of("receiverEmail", "receiverCellNumber"));
+    // Key for the pseudonyms; a random one is drawn at startup when blank, so set it to replay
+    // captures taken across a restart together
+    private String pseudonymKey = "";
+    // Writes an H2 SQL script of the database next to each capture file for the replayer to start from
+    private boolean snapshot = true;
+    // table.column pairs rewritten with pseudonyms before a snapshot reaches disk. Columns
+    // matched against captured fields must use the same pseudonyms, which is why nothing is
+    // blanked; a personal column added to the schema has to be added here too.
+    private List<String> snapshotPseudonymizeColumns = new ArrayList<>(List.of(
+            "users.email", "users.cell_number", "users.first_name", "users.last_name", "users.id_passport",
+            "users.physical_address", "users.password_hash",
+            "admins.email", "admins.password_hash",
+            "transactions.receiver_cell_number", "transactions.receiver_name", "transactions.receiver_surname",
+            "transactions.receiver_id_passport", "transactions.receiver_address", "transactions.withdrawal_pin",
+            "standing_orders.receiver_address",
+            "shard_transfers.receiver_cell_number",
+            "enquiries.subject", "enquiries.message", "enquiries.response",
+            "notification_outbox.address", "notification_outbox.message",
+            "organizations.contact_person", "organizations.contact_number"));
+}
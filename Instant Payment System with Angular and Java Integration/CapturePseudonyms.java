@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+// Keyed, deterministic stand-ins for personal data in captures and their snapshots. The same
+// value always maps to the same pseudonym under one key, so a receiver address in a captured
+// request still finds the pseudonymized account in the snapshot. Email addresses stay email
+// shaped because lookups route on the '@'; everything else becomes digits. Without the key the
+// mapping cannot be reversed by hashing candidate cell numbers.
+public final class CapturePseudonyms {
+
+    private CapturePseudonyms() {
+    }
+
+    // Public and static so H2 can call it as a function alias while rewriting a snapshot
+    public static String pseudonym(String key, String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        long hash = hmac(key, trimmed) & Long.MAX_VALUE;
+        return trimmed.indexOf('@') >= 0 ? "u" + Long.toHexString(hash) + "@capture.invalid" : Long.toString(hash);
+    }
+
+    private static long hmac(String key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return ByteBuffer.wrap(mac.doFinal(value.getBytes(StandardCharsets.UTF_8))).getLong();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is required by every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.nio.file.Path;
+
+// Written next to each capture file when it is closed. A replay of a file with any drops is
+// missing requests that production served, so its outcomes cannot be compared one for one.
+public record CaptureSummary(String file, String snapshot, long startEpochMillis, long written,
+                             long droppedQueueFull, long droppedBeforeSnapshot) {
+
+    public static final String EXTENSION = ".summary.json";
+
+    public static Path pathFor(Path captureFile) {
+        return captureFile.resolveSibling(captureFile.getFileName() + EXTENSION);
+    }
+
+    public long dropped() {
+        return droppedQueueFull + droppedBeforeSnapshot;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+// One request as recorded by the capture filter. Offsets are nanoseconds from the start of
+// the capture file; parameters are already redacted and the body is compact JSON or null.
+public record CapturedRequest(long offsetNanos, long durationNanos, int status, String method, String path,
+                              String userId, List<Parameter> parameters, String body) {
+
+    public record Parameter(String name, String value) {
+    }
+}
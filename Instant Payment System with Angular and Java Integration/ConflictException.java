@@ -0,0 +1,9 @@
+package com.example.demo.exception;
+
+// The request would duplicate something that must be unique
+public class ConflictException extends DomainException {
+
+    ConflictException(ErrorCode code, String message) {
+        super(code, message);
+    }
+}
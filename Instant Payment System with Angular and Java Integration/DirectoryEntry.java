@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectoryEntry {
+    private String userId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String cellNumber;
+
+    public String getDisplayName() {
+        return firstName + " " + lastName;
+    }
+}
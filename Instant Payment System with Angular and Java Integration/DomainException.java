@@ -0,0 +1,17 @@
+package com.example.demo.exception;
+
+// Base of the expected-failure hierarchy. Stack traces are never filled in and suppression
+// is disabled: these are outcomes, not bugs, and the code identifies them fully.
+public abstract class DomainException extends RuntimeException {
+
+    private final ErrorCode code;
+
+    protected DomainException(ErrorCode code, String message) {
+        super(message, null, false, false);
+        this.code = code;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Weak ETags derived from the version-defining fields of a response, so a
+// conditional GET can be answered before anything is loaded or serialized.
+// The tag is the first 64 bits of a SHA-256 over the parts, so two versions
+// of a response never realistically share a tag the way 32-bit hashes do.
+final class ETags {
+
+    private static final int TAG_BYTES = 8;
+
+    private ETags() {
+    }
+
+    static String of(Object... parts) {
+        MessageDigest digest = sha256();
+        for (Object part : parts) {
+            // Length-prefixed so ("ab", "c") and ("a", "bc") digest differently
+            byte[] bytes = String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+            digest.update((byte) (bytes.length >>> 24));
+            digest.update((byte) (bytes.length >>> 16));
+            digest.update((byte) (bytes.length >>> 8));
+            digest.update((byte) bytes.length);
+            digest.update(bytes);
+        }
+        return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, TAG_BYTES) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
@@ -5,7 +5,9 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "enquiries")
+@Table(name = "enquiries", indexes = {
+        @Index(name = "idx_enquiries_user", columnList = "userId")
+})
 @Data
 public class Enquiry {
     @Id
@@ -1,5 +1,7 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.EnquiryResponse;
+import com.example.demo.exception.ErrorCode;
 import com.example.demo.model.Enquiry;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
@@ -27,42 +29,43 @@ public class EnquiryController {
         String username = authentication.getName();
         return userRepository.findByEmail(username)
                 
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
     }
 
     @PostMapping
-    public ResponseEntity<Enquiry> createEnquiry(@RequestParam String subject, @RequestParam String message) {
+    public ResponseEntity<EnquiryResponse> createEnquiry(@RequestParam String subject, @RequestParam String message) {
         User user = getCurrentUser();
         Enquiry enquiry = enquiryService.createEnquiry(user, subject, message);
-        return ResponseEntity.ok(enquiry);
+        return ResponseEntity.ok(EnquiryResponse.from(enquiry));
     }
 
     @GetMapping
-    public ResponseEntity<List<Enquiry>> getMyEnquiries() {
+    public ResponseEntity<List<EnquiryResponse>> getMyEnquiries() {
         User user = getCurrentUser();
         List<Enquiry> enquiries = enquiryService.getEnquiriesByUser(user);
-        return ResponseEntity.ok(enquiries);
+        return ResponseEntity.ok(enquiries.stream().map(EnquiryResponse::from).toList());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Enquiry> getEnquiryById(@PathVariable Long id) {
+    public ResponseEntity<EnquiryResponse> getEnquiryById(@PathVariable Long id) {
         return enquiryService.getEnquiryById(id)
+                .map(EnquiryResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // Admin only endpoint to update enquiry status
     @PutMapping("/{id}/status")
-    public ResponseEntity<Enquiry> updateEnquiryStatus(@PathVariable Long id, @RequestParam String status) {
+    public ResponseEntity<EnquiryResponse> updateEnquiryStatus(@PathVariable Long id, @RequestParam String status) {
         Enquiry updatedEnquiry = enquiryService.updateEnquiryStatus(id, status);
-        return ResponseEntity.ok(updatedEnquiry);
+        return ResponseEntity.ok(EnquiryResponse.from(updatedEnquiry));
     }
 
     // Admin only endpoint to get all enquiries
     @GetMapping("/all")
-    public ResponseEntity<List<Enquiry>> getAllEnquiries() {
+    public ResponseEntity<List<EnquiryResponse>> getAllEnquiries() {
         List<Enquiry> enquiries = enquiryService.getAllEnquiries();
-        return ResponseEntity.ok(enquiries);
+        return ResponseEntity.ok(enquiries.stream().map(EnquiryResponse::from).toList());
     }
 }
 
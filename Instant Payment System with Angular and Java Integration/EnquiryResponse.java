@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Enquiry;
+
+import java.time.LocalDateTime;
+
+public record EnquiryResponse(
+        String id,
+        String userId,
+        String subject,
+        String message,
+        String status,
+        LocalDateTime createdAt,
+        String response,
+        LocalDateTime respondedAt) {
+
+    public static EnquiryResponse from(Enquiry enquiry) {
+        return new EnquiryResponse(
+                enquiry.getId(),
+                enquiry.getUserId(),
+                enquiry.getSubject(),
+                enquiry.getMessage(),
+                enquiry.getStatus(),
+                enquiry.getCreatedAt(),
+                enquiry.getResponse(),
+                enquiry.getRespondedAt());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.service;
 
+import com.example.demo.exception.ErrorCode;
 import com.example.demo.model.Enquiry;
 import com.example.demo.model.User;
 import com.example.demo.repository.EnquiryRepository;
@@ -36,7 +37,7 @@ public class EnquiryService {
 
     public Enquiry updateEnquiryStatus(Long id, String status) {
         Enquiry enquiry = enquiryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Enquiry not found"));
+                .orElseThrow(() -> ErrorCode.ENQUIRY_NOT_FOUND.exception());
         enquiry.setStatus(status);
         return enquiryRepository.save(enquiry);
     }
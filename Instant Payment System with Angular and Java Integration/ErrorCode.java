@@ -0,0 +1,84 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Stable codes for expected business failures. Clients should branch on the code, not on
+// the message. Each code carries one pre-allocated, stack-trace-free exception that can be
+// thrown from any thread: it is immutable and never records suppressed exceptions.
+public enum ErrorCode {
+
+    INSUFFICIENT_FUNDS(Kind.BUSINESS_RULE, "Insufficient balance to cover the amount and fees"),
+    SELF_TRANSFER(Kind.BUSINESS_RULE, "Cannot send money to yourself"),
+    RISK_BLOCKED(Kind.BUSINESS_RULE, "Transfer blocked by risk checks"),
+    INVALID_REQUEST(Kind.BUSINESS_RULE, "Invalid request"),
+    RECEIVER_NOT_FOUND(Kind.NOT_FOUND, "Receiver not found"),
+    USER_NOT_FOUND(Kind.NOT_FOUND, "User not found"),
+    ENQUIRY_NOT_FOUND(Kind.NOT_FOUND, "Enquiry not found"),
+    ORGANIZATION_NOT_FOUND(Kind.NOT_FOUND, "Organization not found"),
+    STANDING_ORDER_NOT_FOUND(Kind.NOT_FOUND, "Standing order not found"),
+    EMAIL_TAKEN(Kind.CONFLICT, "Email is already taken"),
+    ID_PASSPORT_TAKEN(Kind.CONFLICT, "ID/Passport is already registered"),
+    ADMIN_EMAIL_TAKEN(Kind.CONFLICT, "Admin email is already registered"),
+    ORGANIZATION_NAME_TAKEN(Kind.CONFLICT, "Organization with this name already exists"),
+    RECONCILIATION_IN_PROGRESS(Kind.CONFLICT, "Reconciliation already in progress"),
+    SHARD_UNAVAILABLE(Kind.UNAVAILABLE, "A node of the cluster is unreachable, please retry"),
+    RISK_UNAVAILABLE(Kind.UNAVAILABLE, "Risk checks are still starting up, please retry");
+
+    public enum Kind {
+        BUSINESS_RULE(HttpStatus.BAD_REQUEST),
+        NOT_FOUND(HttpStatus.NOT_FOUND),
+        CONFLICT(HttpStatus.CONFLICT),
+        UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE);
+
+        private final HttpStatus status;
+
+        Kind(HttpStatus status) {
+            this.status = status;
+        }
+    }
+
+    private final Kind kind;
+    private final String message;
+    private final DomainException shared;
+
+    ErrorCode(Kind kind, String message) {
+        this.kind = kind;
+        this.message = message;
+        this.shared = create(message);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public HttpStatus status() {
+        return kind.status;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    // The shared instance; use on hot rejection paths
+    public DomainException exception() {
+        return shared;
+    }
+
+    // A fresh, still stackless instance for messages that carry request detail
+    public DomainException exception(String detail) {
+        return create(detail);
+    }
+
+    private DomainException create(String text) {
+        switch (kind) {
+            case NOT_FOUND:
+                return new NotFoundException(this, text);
+            case CONFLICT:
+                return new ConflictException(this, text);
+            case UNAVAILABLE:
+                return new UnavailableException(this, text);
+            default:
+                return new BusinessRuleException(this, text);
+        }
+    }
+}
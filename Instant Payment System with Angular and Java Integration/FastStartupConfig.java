@@ -0,0 +1,38 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.AdminController;
+import com.example.demo.controller.EnquiryController;
+import com.example.demo.service.AdminService;
+import com.example.demo.service.EnquiryService;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.Set;
+
+// Under fast-startup the admin and enquiry beans, rarely needed right after a deploy, are
+// created on first use instead of during boot. Other profiles build them eagerly as usual.
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    private static final Set<String> DEFERRED = Set.of(
+            AdminController.class.getName(),
+            AdminService.class.getName(),
+            EnquiryController.class.getName(),
+            EnquiryService.class.getName());
+
+    @Bean
+    public static BeanFactoryPostProcessor deferRarelyUsedBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (DEFERRED.contains(definition.getBeanClassName())) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+}
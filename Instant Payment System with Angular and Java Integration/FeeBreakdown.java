@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class FeeBreakdown {
+    private BigDecimal commission;
+    private BigDecimal vat;
+    private BigDecimal total;
+}
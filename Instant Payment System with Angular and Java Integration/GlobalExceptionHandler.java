@@ -31,6 +31,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
     }
 
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<Map<String, String>> handleDomainException(DomainException ex) {
+        return errorResponse(ex.getCode(), ex.getMessage());
+    }
+
+    public static ResponseEntity<Map<String, String>> errorResponse(ErrorCode code) {
+        return errorResponse(code, code.message());
+    }
+
+    // Shared with controllers that receive a rejected Result, so both paths answer identically
+    public static ResponseEntity<Map<String, String>> errorResponse(ErrorCode code, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Operation failed");
+        error.put("code", code.name());
+        error.put("message", message);
+        return ResponseEntity.status(code.status()).body(error);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
         Map<String, String> error = new HashMap<>();
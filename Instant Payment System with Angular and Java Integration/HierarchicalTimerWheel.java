@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+// Hierarchical timing wheel: level l has wheelSize slots of tickMs * wheelSize^l each.
+// Scheduling and expiry are O(1) per entry regardless of how many are pending, and an entry
+// is cascaded down at most levels - 1 times on its way to level 0. A slot holding a million
+// entries for the same minute costs no more to reach than an empty one.
+// Not thread-safe; callers hold their own lock.
+public class HierarchicalTimerWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] spans;
+    private final ArrayDeque<Entry<T>>[][] slots;
+    private long currentTick;
+    private int size;
+
+    private record Entry<T>(T item, long dueTick) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimerWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levels + 1];
+        this.slots = new ArrayDeque[levels][wheelSize];
+        long span = 1;
+        for (int level = 0; level <= levels; level++) {
+            spans[level] = span;
+            span *= wheelSize;
+        }
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots[level][slot] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    // How far ahead of the current time an entry may be scheduled
+    public long capacityMs() {
+        return (spans[spans.length - 1] - 1) * tickMs;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns false if dueMs is beyond capacity; overdue entries fire on the next tick
+    public boolean schedule(T item, long dueMs) {
+        long dueTick = Math.max(dueMs / tickMs, currentTick + 1);
+        if (!place(new Entry<>(item, dueTick))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    // Moves time forward to nowMs, handing every entry that came due to expired
+    public void advance(long nowMs, Consumer<T> expired) {
+        long target = nowMs / tickMs;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = slots.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    cascade(level, (int) ((currentTick / spans[level]) % wheelSize), expired);
+                }
+            }
+            ArrayDeque<Entry<T>> due = slots[0][(int) (currentTick % wheelSize)];
+            Entry<T> entry;
+            while ((entry = due.poll()) != null) {
+                size--;
+                expired.accept(entry.item());
+            }
+        }
+    }
+
+    private void cascade(int level, int slot, Consumer<T> expired) {
+        ArrayDeque<Entry<T>> bucket = slots[level][slot];
+        if (bucket.isEmpty()) {
+            return;
+        }
+        // Swapped out first, since entries for a later lap go straight back into this slot
+        slots[level][slot] = new ArrayDeque<>();
+        for (Entry<T> entry : bucket) {
+            if (entry.dueTick() <= currentTick) {
+                size--;
+                expired.accept(entry.item());
+            } else {
+                place(entry);
+            }
+        }
+    }
+
+    private boolean place(Entry<T> entry) {
+        long delta = entry.dueTick() - currentTick;
+        for (int level = 0; level < slots.length; level++) {
+            if (delta < spans[level + 1]) {
+                slots[level][(int) ((entry.dueTick() / spans[level]) % wheelSize)].add(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// Cheap fingerprint of a user's history, used as an ETag without loading the rows
+public interface HistoryStamp {
+    long getCount();
+    LocalDateTime getLatest();
+    // Newest status change, so a settled or failed transfer changes the stamp too
+    LocalDateTime getLastUpdated();
+}
@@ -0,0 +1,200 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.model.BalanceBucket;
+import com.example.demo.model.User;
+import com.example.demo.repository.BalanceBucketRepository;
+import com.example.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Hot accounts take inbound credits on one of K bucket rows instead of users.balance, so
+// concurrent payments to one merchant contend on K rows rather than one. Buckets are
+// credit-only. Every debit, hot or not, goes through lockForDebit, which locks the account
+// row; only when a hot account's row alone cannot cover the debit are its buckets locked and
+// folded into it. Overdraft checks therefore always see a single, locked balance.
+@Service
+public class HotAccountService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotAccountService.class);
+    private static final int MAX_BUCKETS = 256;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BalanceBucketRepository balanceBucketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${hot-accounts.rollup-enabled:true}")
+    private boolean rollupEnabled;
+
+    // Replaced wholesale on change; hot accounts are few and change rarely
+    private volatile Map<String, Integer> hotAccounts = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<String, Integer> loaded = new HashMap<>();
+        for (Object[] row : userRepository.findHotAccounts()) {
+            loaded.put((String) row[0], (Integer) row[1]);
+        }
+        hotAccounts = Map.copyOf(loaded);
+    }
+
+    public boolean isHot(String userId) {
+        return hotAccounts.containsKey(userId);
+    }
+
+    // Replaces userRepository.creditBalance for any credit that may land on a hot account
+    public int credit(String userId, BigDecimal amount) {
+        Integer buckets = hotAccounts.get(userId);
+        if (buckets != null) {
+            int bucket = ThreadLocalRandom.current().nextInt(buckets);
+            if (balanceBucketRepository.credit(BalanceBucket.idFor(userId, bucket), amount) == 1) {
+                return 1;
+            }
+            // Buckets removed by a concurrent disable
+        }
+        return userRepository.creditBalance(userId, amount);
+    }
+
+    // Call inside the debit transaction before the balance check, for every account. Returns
+    // the sender's row locked for the rest of the transaction; debit that entity, never a copy
+    // loaded earlier. For a hot account the buckets are folded in only if the row falls short.
+    public User lockForDebit(String userId, BigDecimal required) {
+        // A copy already managed in this transaction comes back as it was loaded, not re-read,
+        // so callers that load the sender inside the transaction must load it with this lock too
+        User locked = userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
+        if (isHot(userId) && locked.getBalance().compareTo(required) < 0) {
+            locked.setBalance(locked.getBalance().add(drain(userId)));
+        }
+        return locked;
+    }
+
+    // Bucket funds not yet folded into users.balance; zero for ordinary accounts
+    public BigDecimal bucketTotal(String userId) {
+        return isHot(userId) ? balanceBucketRepository.sumByUserId(userId) : BigDecimal.ZERO;
+    }
+
+    @Transactional
+    public void enable(String userId, int buckets) {
+        if (buckets < 1 || buckets > MAX_BUCKETS) {
+            throw ErrorCode.INVALID_REQUEST.exception("Bucket count must be between 1 and " + MAX_BUCKETS);
+        }
+        User user = userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
+        if (user.getBalanceBuckets() > 0) {
+            user.setBalance(user.getBalance().add(drain(userId)));
+            balanceBucketRepository.deleteByUserId(userId);
+        }
+        List<BalanceBucket> rows = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            BalanceBucket bucket = new BalanceBucket();
+            bucket.setId(BalanceBucket.idFor(userId, i));
+            bucket.setUserId(userId);
+            bucket.setBucketIndex(i);
+            rows.add(bucket);
+        }
+        balanceBucketRepository.saveAll(rows);
+        user.setBalanceBuckets(buckets);
+        user.setUpdatedAt(LocalDateTime.now());
+        userRepository.save(user);
+        afterCommit(() -> update(userId, buckets));
+    }
+
+    @Transactional
+    public void disable(String userId) {
+        User user = userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
+        if (user.getBalanceBuckets() == 0) {
+            return;
+        }
+        // Credits that race the drain wait on the locked bucket rows, find them deleted and fall
+        // back to the account row, so the registry can keep the account hot until this commits
+        user.setBalance(user.getBalance().add(drain(userId)));
+        balanceBucketRepository.deleteByUserId(userId);
+        user.setBalanceBuckets(0);
+        user.setUpdatedAt(LocalDateTime.now());
+        userRepository.save(user);
+        afterCommit(() -> update(userId, null));
+    }
+
+    // Optional background consolidation, keeping buckets small and reads cheap
+    @Scheduled(fixedDelayString = "${hot-accounts.rollup-interval-ms:60000}")
+    public void rollUp() {
+        if (!rollupEnabled) {
+            return;
+        }
+        for (String userId : hotAccounts.keySet()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Account row before buckets, the same order debits take them in
+                    if (userRepository.findByIdForUpdate(userId).isEmpty()) {
+                        return;
+                    }
+                    BigDecimal drained = drain(userId);
+                    if (drained.signum() != 0) {
+                        userRepository.creditBalance(userId, drained);
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("Roll-up of hot account {} failed: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    // Moves every bucket's amount out and returns the total; caller adds it to the account row
+    private BigDecimal drain(String userId) {
+        List<BalanceBucket> buckets = balanceBucketRepository.lockByUserId(userId);
+        BigDecimal total = BigDecimal.ZERO;
+        LocalDateTime now = LocalDateTime.now();
+        for (BalanceBucket bucket : buckets) {
+            if (bucket.getAmount().signum() != 0) {
+                total = total.add(bucket.getAmount());
+                bucket.setAmount(BigDecimal.ZERO);
+                bucket.setUpdatedAt(now);
+            }
+        }
+        return total;
+    }
+
+    private synchronized void update(String userId, Integer buckets) {
+        Map<String, Integer> next = new HashMap<>(hotAccounts);
+        if (buckets == null) {
+            next.remove(userId);
+        } else {
+            next.put(userId, buckets);
+        }
+        hotAccounts = Map.copyOf(next);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
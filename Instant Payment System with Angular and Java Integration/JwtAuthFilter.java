@@ -1,5 +1,8 @@
 package com.example.demo.security;
 
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.service.PaymentMetrics;
+import com.example.demo.service.ReceiverDirectoryService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,12 +10,15 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
@@ -21,7 +27,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private ReceiverDirectoryService receiverDirectoryService;
+
+    @Autowired
+    private PaymentMetrics metrics;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -29,13 +38,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String token = null;
         String username = null;
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            long start = metrics.start();
             token = authHeader.substring(7);
             username = jwtUtil.extractUsername(token);
+            metrics.stage("auth", "jwt_parse", start);
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token, userDetails)) {
+            // The signed token proves who the caller is; the lookup only confirms the account
+            // still exists. It is served from the directory cache, which user changes and
+            // deletions invalidate, so a warm request runs no query.
+            long start = metrics.start();
+            Optional<DirectoryEntry> account = receiverDirectoryService.resolve(username);
+            metrics.stage("auth", "user_lookup", start);
+            if (account.isEmpty()) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            UserDetails userDetails = User.withUsername(account.get().getEmail()).password("").authorities(List.of()).build();
+            start = metrics.start();
+            boolean valid = jwtUtil.validateToken(token, userDetails);
+            metrics.stage("auth", "jwt_validate", start);
+            if (valid) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -52,6 +52,17 @@ public class JwtUtil {
         return createToken(claims,userName);
     }
 
+    // The uid claim lets any node route the request to the account's owner without a lookup
+    public String generateToken(String userName, String userId){
+        Map<String,Object> claims=new HashMap<>();
+        claims.put("uid", userId);
+        return createToken(claims,userName);
+    }
+
+    public String extractUserId(String token) {
+        return extractClaim(token, claims -> claims.get("uid", String.class));
+    }
+
     private String createToken(Map<String, Object> claims, String userName) {
         return Jwts.builder()
                 .setClaims(claims)
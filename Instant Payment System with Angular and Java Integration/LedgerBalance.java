@@ -0,0 +1,18 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ledger_balances")
+@Data
+public class LedgerBalance {
+    @Id
+    private String userId;
+    @Column(nullable = false)
+    private BigDecimal netFlow = BigDecimal.ZERO;
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.LedgerBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LedgerBalanceRepository extends JpaRepository<LedgerBalance, String> {
+}
@@ -0,0 +1,43 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Local stand-in for the SMS/email gateway: appends each delivery to a file
+@Component
+public class LogFileNotificationSink implements NotificationSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LogFileNotificationSink.class);
+
+    @Value("${notifications.sink.file:build/notifications/notifications.log}")
+    private Path file;
+
+    // Serializes appends without a monitor, which would pin a virtual thread across the write
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Override
+    public void deliver(String channel, String address, List<String> messages) throws IOException {
+        StringBuilder line = new StringBuilder()
+                .append(LocalDateTime.now()).append(' ').append(channel).append(' ').append(address).append(": ")
+                .append(String.join(" | ", messages)).append(System.lineSeparator());
+        lock.lock();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } finally {
+            lock.unlock();
+        }
+        log.debug("{} to {}: {} message(s)", channel, address, messages.size());
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.exception;
+
+// The referenced account or record does not exist
+public class NotFoundException extends DomainException {
+
+    NotFoundException(ErrorCode code, String message) {
+        super(code, message);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.demo.service;
+
+import com.example.demo.model.OutboxNotification;
+import com.example.demo.repository.OutboxNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Read side of the notification outbox: claims due rows in batches, coalesces them per
+// recipient and hands each group to the sink. Failures back off exponentially with jitter
+// and are parked as FAILED after max-attempts. SENT rows are purged after a retention period.
+// Runs entirely off the request path.
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Autowired
+    private OutboxNotificationRepository outboxNotificationRepository;
+
+    @Autowired
+    private NotificationSink sink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notifications.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notifications.batch-size:200}")
+    private int batchSize;
+
+    @Value("${notifications.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notifications.backoff-base-ms:2000}")
+    private long backoffBaseMs;
+
+    @Value("${notifications.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    @Value("${notifications.claim-lease-ms:300000}")
+    private long claimLeaseMs;
+
+    @Value("${notifications.sent-retention-hours:168}")
+    private long sentRetentionHours;
+
+    private Counter delivered;
+    private Counter retried;
+    private Counter failed;
+    private Counter lostClaims;
+
+    @PostConstruct
+    void registerMeters() {
+        delivered = Counter.builder("notifications.messages").tag("outcome", "delivered").register(meterRegistry);
+        retried = Counter.builder("notifications.messages").tag("outcome", "retried").register(meterRegistry);
+        failed = Counter.builder("notifications.messages").tag("outcome", "failed").register(meterRegistry);
+        lostClaims = Counter.builder("notifications.lost_claims").register(meterRegistry);
+        Gauge.builder("notifications.backlog", outboxNotificationRepository, r -> r.countByState("PENDING"))
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.poll-interval-ms:500}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        // Keep draining while batches come back full, so a burst clears without waiting a poll interval each time
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.claim-lease-ms:300000}")
+    public void releaseExpiredClaims() {
+        Integer released = transactionTemplate.execute(status -> outboxNotificationRepository
+                .releaseExpiredClaims(LocalDateTime.now().minusNanos(claimLeaseMs * 1_000_000L)));
+        if (released != null && released > 0) {
+            log.warn("Released {} notification(s) from expired claims", released);
+        }
+    }
+
+    // Deletes in batch-size slices so a large backlog never holds one long delete
+    @Scheduled(fixedDelayString = "${notifications.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        LocalDateTime before = LocalDateTime.now().minusHours(sentRetentionHours);
+        int purged = 0;
+        int deleted;
+        do {
+            Integer count = transactionTemplate.execute(status -> {
+                List<String> ids = outboxNotificationRepository.findSentIdsBefore(before, PageRequest.of(0, batchSize));
+                outboxNotificationRepository.deleteAllByIdInBatch(ids);
+                return ids.size();
+            });
+            deleted = count == null ? 0 : count;
+            purged += deleted;
+        } while (deleted == batchSize);
+        if (purged > 0) {
+            log.info("Purged {} sent notification(s) older than {} hours", purged, sentRetentionHours);
+        }
+    }
+
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        // Rows claimed by a concurrent dispatcher, or re-claimed after a lease expiry, carry another token
+        String token = UUID.randomUUID().toString();
+        List<OutboxNotification> batch = transactionTemplate.execute(status -> {
+            List<String> ids = outboxNotificationRepository.findDueIds(now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            outboxNotificationRepository.claim(ids, token, now);
+            return outboxNotificationRepository.findByClaimedByAndState(token, "CLAIMED");
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<OutboxNotification>> byRecipient = new LinkedHashMap<>();
+        for (OutboxNotification notification : batch) {
+            byRecipient.computeIfAbsent(notification.getChannel() + ":" + notification.getAddress(), k -> new ArrayList<>())
+                    .add(notification);
+        }
+
+        List<String> sent = new ArrayList<>(batch.size());
+        List<OutboxNotification> rescheduled = new ArrayList<>();
+        for (List<OutboxNotification> group : byRecipient.values()) {
+            OutboxNotification first = group.get(0);
+            List<String> messages = group.stream().map(OutboxNotification::getMessage).toList();
+            try {
+                sink.deliver(first.getChannel(), first.getAddress(), messages);
+                group.forEach(n -> sent.add(n.getId()));
+                delivered.increment(group.size());
+            } catch (Exception e) {
+                group.forEach(n -> reschedule(n, e));
+                rescheduled.addAll(group);
+            }
+        }
+        settle(token, sent, rescheduled);
+        return batch.size();
+    }
+
+    // Guarded updates rather than saveAll: a run that outlived its lease must not overwrite the
+    // state written by the run that re-claimed its rows
+    private void settle(String token, List<String> sent, List<OutboxNotification> rescheduled) {
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = sent.isEmpty() ? 0 : outboxNotificationRepository.markSent(sent, token, LocalDateTime.now());
+            for (OutboxNotification n : rescheduled) {
+                count += outboxNotificationRepository.markAttemptFailed(n.getId(), token, n.getState(),
+                        n.getAttempts(), n.getNextAttemptAt(), n.getLastError());
+            }
+            return count;
+        });
+        int lost = sent.size() + rescheduled.size() - (updated == null ? 0 : updated);
+        if (lost > 0) {
+            lostClaims.increment(lost);
+            log.warn("{} notification(s) were re-claimed by another run before this one settled them", lost);
+        }
+    }
+
+    private void reschedule(OutboxNotification notification, Exception cause) {
+        int attempts = notification.getAttempts() + 1;
+        notification.setAttempts(attempts);
+        String error = String.valueOf(cause.getMessage());
+        notification.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+        if (attempts >= maxAttempts) {
+            notification.setState("FAILED");
+            failed.increment();
+            return;
+        }
+        long backoff = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 20));
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        notification.setState("PENDING");
+        notification.setNextAttemptAt(LocalDateTime.now().plusNanos(jittered * 1_000_000L));
+        retried.increment();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.service;
+
+import com.example.demo.model.OutboxNotification;
+import com.example.demo.repository.OutboxNotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Write side of the notification outbox. Rows commit or roll back with the transfer that
+// produced them, so a notification is never sent for a transfer that did not happen.
+@Service
+public class NotificationOutbox {
+
+    public static final String SMS = "SMS";
+
+    @Autowired
+    private OutboxNotificationRepository outboxNotificationRepository;
+
+    @Value("${notifications.enabled:true}")
+    private boolean enabled;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String recipientUserId, String cellNumber, String eventType, String message) {
+        if (!enabled || cellNumber == null) {
+            return;
+        }
+        OutboxNotification notification = new OutboxNotification();
+        notification.setRecipientUserId(recipientUserId);
+        notification.setChannel(SMS);
+        notification.setAddress(cellNumber);
+        notification.setEventType(eventType);
+        notification.setMessage(message);
+        outboxNotificationRepository.save(notification);
+    }
+
+    public static String money(BigDecimal amount) {
+        return "R" + amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.util.List;
+
+// Delivery channel for outbox notifications. Provide a @Primary bean to replace the local
+// stand-in with a real SMS or email gateway.
+public interface NotificationSink {
+
+    // One call per recipient per dispatch, carrying every message coalesced for them.
+    // Throwing marks the whole group for retry.
+    void deliver(String channel, String address, List<String> messages) throws IOException;
+}
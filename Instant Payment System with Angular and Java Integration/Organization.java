@@ -16,5 +16,8 @@ public class Organization {
     private String address;
     private String contactPerson;
     private String contactNumber;
+    // Outlet position for cash-out lookups; organizations without one are found by name only
+    private Double latitude;
+    private Double longitude;
 }
 
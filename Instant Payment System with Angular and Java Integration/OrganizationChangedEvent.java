@@ -0,0 +1,11 @@
+package com.example.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published on every organization create, update or delete so the registry snapshot is rebuilt
+@Data
+@AllArgsConstructor
+public class OrganizationChangedEvent {
+    private String organizationId;
+}
@@ -0,0 +1,266 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.OrganizationResponse;
+import com.example.demo.dto.OutletMatch;
+import com.example.demo.event.OrganizationChangedEvent;
+import com.example.demo.repository.OrganizationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Every organization and outlet in an immutable in-memory snapshot. Readers take the current
+// snapshot with one volatile read and never lock or touch the database; admin changes build
+// a complete new snapshot and swap it in. Outlets are few and change rarely, so a rebuild
+// per change is cheaper than keeping mutable indexes consistent.
+@Service
+public class OrganizationRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(OrganizationRegistry.class);
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Grid cell edge in degrees; 0.05 is roughly 5.5 km of latitude
+    @Value("${organizations.grid-cell-degrees:0.05}")
+    private double cellDegrees;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+        Gauge.builder("organizations.registry.size", this, r -> r.snapshot.byName.length).register(meterRegistry);
+    }
+
+    // After commit, so the rebuild reads what the admin change wrote
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrganizationChanged(OrganizationChangedEvent event) {
+        rebuild();
+    }
+
+    // A lock rather than synchronized: the query runs while it is held, and a virtual thread
+    // blocked inside a monitor would pin its carrier for the whole round trip
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildLocked();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildLocked() {
+        long start = System.nanoTime();
+        List<OrganizationResponse> outlets = organizationRepository.findAll().stream()
+                .map(OrganizationResponse::from)
+                .toList();
+        snapshot = Snapshot.build(outlets, cellDegrees);
+        log.debug("Organization registry rebuilt with {} outlet(s) in {} µs", outlets.size(), (System.nanoTime() - start) / 1000);
+    }
+
+    public Optional<OrganizationResponse> get(String id) {
+        return Optional.ofNullable(snapshot.byId.get(id));
+    }
+
+    public int size() {
+        return snapshot.byName.length;
+    }
+
+    // Admin listing in name order; page is zero-based
+    public List<OrganizationResponse> page(int page, int size) {
+        OrganizationResponse[] byName = snapshot.byName;
+        int from = (int) Math.min((long) page * size, byName.length);
+        int to = Math.min(from + size, byName.length);
+        return List.of(Arrays.copyOfRange(byName, from, to));
+    }
+
+    public List<OrganizationResponse> all() {
+        return List.of(snapshot.byName);
+    }
+
+    // Outlets with a word in their name starting with the query, e.g. "pick" or "mart" for "Pick n Mart"
+    public List<OrganizationResponse> findByNamePrefix(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        int index = lowerBound(current.tokens, prefix);
+        Set<OrganizationResponse> matches = new LinkedHashSet<>();
+        while (index < current.tokens.length && current.tokens[index].startsWith(prefix) && matches.size() < limit) {
+            matches.add(current.byName[current.tokenOwners[index]]);
+            index++;
+        }
+        List<OrganizationResponse> result = new ArrayList<>(matches);
+        result.sort(Comparator.comparing(OrganizationResponse::name, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    // Cash-out points within radiusKm, nearest first, optionally narrowed by name prefix
+    public List<OutletMatch> findNearby(double latitude, double longitude, double radiusKm, String namePrefix, int limit) {
+        Snapshot current = snapshot;
+        String prefix = namePrefix == null ? "" : normalize(namePrefix);
+        int latCells = (int) Math.ceil(radiusKm / (cellDegrees * 111.0));
+        double lonDegreesPerKm = 1.0 / (111.0 * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        int lonCells = (int) Math.ceil(radiusKm * lonDegreesPerKm / cellDegrees);
+        long row = cellIndex(latitude, cellDegrees);
+        long column = cellIndex(longitude, cellDegrees);
+
+        List<OutletMatch> matches = new ArrayList<>();
+        for (long r = row - latCells; r <= row + latCells; r++) {
+            for (long c = column - lonCells; c <= column + lonCells; c++) {
+                int[] members = current.grid.get(cellKey(r, c));
+                if (members == null) {
+                    continue;
+                }
+                for (int member : members) {
+                    OrganizationResponse outlet = current.byName[member];
+                    if (!prefix.isEmpty() && !current.nameTokens[member].contains(prefix)) {
+                        continue;
+                    }
+                    double distance = distanceKm(latitude, longitude, outlet.latitude(), outlet.longitude());
+                    if (distance <= radiusKm) {
+                        matches.add(new OutletMatch(outlet, distance));
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(OutletMatch::distanceKm));
+        return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    static String normalize(String text) {
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim();
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long cellIndex(double degrees, double cellDegrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(long row, long column) {
+        return (row << 32) ^ (column & 0xffffffffL);
+    }
+
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = build(List.of(), 1.0);
+
+        // Outlets in case-insensitive name order; other indexes hold positions in this array
+        final OrganizationResponse[] byName;
+        final Map<String, OrganizationResponse> byId;
+        // Every normalized name and name word, sorted, with the outlet each came from
+        final String[] tokens;
+        final int[] tokenOwners;
+        // Per outlet, the normalized words of its name, for prefix filtering of grid hits
+        final NameTokens[] nameTokens;
+        final Map<Long, int[]> grid;
+
+        private Snapshot(OrganizationResponse[] byName, Map<String, OrganizationResponse> byId, String[] tokens,
+                         int[] tokenOwners, NameTokens[] nameTokens, Map<Long, int[]> grid) {
+            this.byName = byName;
+            this.byId = byId;
+            this.tokens = tokens;
+            this.tokenOwners = tokenOwners;
+            this.nameTokens = nameTokens;
+            this.grid = grid;
+        }
+
+        static Snapshot build(List<OrganizationResponse> outlets, double cellDegrees) {
+            OrganizationResponse[] byName = outlets.toArray(new OrganizationResponse[0]);
+            Arrays.sort(byName, Comparator.comparing(OrganizationResponse::name, String.CASE_INSENSITIVE_ORDER));
+
+            Map<String, OrganizationResponse> byId = new HashMap<>();
+            List<String[]> entries = new ArrayList<>();
+            NameTokens[] nameTokens = new NameTokens[byName.length];
+            Map<Long, List<Integer>> cells = new HashMap<>();
+            for (int i = 0; i < byName.length; i++) {
+                OrganizationResponse outlet = byName[i];
+                byId.put(outlet.id(), outlet);
+                String name = normalize(outlet.name());
+                Set<String> words = new LinkedHashSet<>();
+                words.add(name);
+                words.addAll(Arrays.asList(name.split(" ")));
+                for (String word : words) {
+                    if (!word.isEmpty()) {
+                        entries.add(new String[]{word, String.valueOf(i)});
+                    }
+                }
+                nameTokens[i] = new NameTokens(words.toArray(new String[0]));
+                if (outlet.latitude() != null && outlet.longitude() != null) {
+                    long key = cellKey(cellIndex(outlet.latitude(), cellDegrees), cellIndex(outlet.longitude(), cellDegrees));
+                    cells.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                }
+            }
+            entries.sort(Comparator.comparing(e -> e[0]));
+            String[] tokens = new String[entries.size()];
+            int[] owners = new int[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                tokens[i] = entries.get(i)[0];
+                owners[i] = Integer.parseInt(entries.get(i)[1]);
+            }
+            Map<Long, int[]> grid = new HashMap<>();
+            cells.forEach((key, members) -> grid.put(key, members.stream().mapToInt(Integer::intValue).toArray()));
+            return new Snapshot(byName, Map.copyOf(byId), tokens, owners, nameTokens, Map.copyOf(grid));
+        }
+    }
+
+    private record NameTokens(String[] words) {
+
+        boolean contains(String prefix) {
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.demo.dto;
+
+public record OrganizationRequest(String name, String address, String contactPerson, String contactNumber,
+                                  Double latitude, Double longitude) {
+}
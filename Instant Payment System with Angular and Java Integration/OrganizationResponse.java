@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Organization;
+
+public record OrganizationResponse(String id, String name, String address, String contactPerson, String contactNumber,
+                                   Double latitude, Double longitude) {
+
+    public static OrganizationResponse from(Organization organization) {
+        return new OrganizationResponse(
+                organization.getId(),
+                organization.getName(),
+                organization.getAddress(),
+                organization.getContactPerson(),
+                organization.getContactNumber(),
+                organization.getLatitude(),
+                organization.getLongitude());
+    }
+}
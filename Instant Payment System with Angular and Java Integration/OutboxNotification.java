@@ -0,0 +1,44 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Written in the same transaction as the transfer it announces, delivered later by the dispatcher
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_outbox_state_next_attempt", columnList = "state, nextAttemptAt"),
+        @Index(name = "idx_outbox_claimed_by", columnList = "claimedBy")
+})
+@Data
+public class OutboxNotification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+    @Column(nullable = false)
+    private String recipientUserId;
+    @Column(nullable = false)
+    private String channel;
+    // Cell number for SMS, email address for EMAIL
+    @Column(nullable = false)
+    private String address;
+    @Column(nullable = false)
+    private String eventType;
+    @Column(nullable = false, length = 500)
+    private String message;
+    // PENDING, CLAIMED, SENT or FAILED
+    @Column(nullable = false)
+    private String state = "PENDING";
+    @Column(nullable = false)
+    private int attempts;
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+    private LocalDateTime claimedAt;
+    // Token of the dispatcher run holding the claim, so a run only reads back its own rows
+    private String claimedBy;
+    private LocalDateTime sentAt;
+    @Column(length = 500)
+    private String lastError;
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,48 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.OutboxNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, String> {
+
+    @Query("SELECT n.id FROM OutboxNotification n WHERE n.state = 'PENDING' AND n.nextAttemptAt <= :now ORDER BY n.nextAttemptAt")
+    List<String> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // The state guard makes the claim safe if another dispatcher picked the same rows
+    @Modifying
+    @Query("UPDATE OutboxNotification n SET n.state = 'CLAIMED', n.claimedAt = :now, n.claimedBy = :token WHERE n.id IN :ids AND n.state = 'PENDING'")
+    int claim(@Param("ids") Collection<String> ids, @Param("token") String token, @Param("now") LocalDateTime now);
+
+    List<OutboxNotification> findByClaimedByAndState(String claimedBy, String state);
+
+    // Settles only rows still held under the caller's token; a claim that expired and was
+    // taken by another run no longer matches and is left to that run
+    @Modifying
+    @Query("UPDATE OutboxNotification n SET n.state = 'SENT', n.sentAt = :sentAt, n.claimedBy = null " +
+            "WHERE n.id IN :ids AND n.state = 'CLAIMED' AND n.claimedBy = :token")
+    int markSent(@Param("ids") Collection<String> ids, @Param("token") String token, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OutboxNotification n SET n.state = :state, n.attempts = :attempts, n.nextAttemptAt = :nextAttemptAt, " +
+            "n.lastError = :lastError, n.claimedBy = null WHERE n.id = :id AND n.state = 'CLAIMED' AND n.claimedBy = :token")
+    int markAttemptFailed(@Param("id") String id, @Param("token") String token, @Param("state") String state,
+                          @Param("attempts") int attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("lastError") String lastError);
+
+    // Claims left behind by a dispatcher that died mid-batch
+    @Modifying
+    @Query("UPDATE OutboxNotification n SET n.state = 'PENDING', n.claimedBy = null WHERE n.state = 'CLAIMED' AND n.claimedAt < :before")
+    int releaseExpiredClaims(@Param("before") LocalDateTime before);
+
+    @Query("SELECT n.id FROM OutboxNotification n WHERE n.state = 'SENT' AND n.sentAt < :before")
+    List<String> findSentIdsBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    long countByState(String state);
+}
@@ -0,0 +1,43 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.OutletMatch;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.service.OrganizationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Where a voucher can be cashed out. Answered entirely from the registry snapshot, so the
+// withdrawal flow never waits on the database for it.
+@RestController
+@RequestMapping("/api/outlets")
+public class OutletController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private OrganizationRegistry organizationRegistry;
+
+    @GetMapping
+    public ResponseEntity<List<OutletMatch>> findOutlets(@RequestParam(required = false) String q,
+                                                         @RequestParam(required = false) Double lat,
+                                                         @RequestParam(required = false) Double lon,
+                                                         @RequestParam(defaultValue = "5") double radiusKm,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        int capped = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        if (lat != null && lon != null) {
+            if (Math.abs(lat) > 90 || Math.abs(lon) > 180 || radiusKm <= 0 || radiusKm > 100) {
+                throw ErrorCode.INVALID_REQUEST.exception("lat/lon out of range or radiusKm not in (0, 100]");
+            }
+            return ResponseEntity.ok(organizationRegistry.findNearby(lat, lon, radiusKm, q, capped));
+        }
+        if (q == null || q.isBlank()) {
+            throw ErrorCode.INVALID_REQUEST.exception("Either q or lat and lon are required");
+        }
+        return ResponseEntity.ok(organizationRegistry.findByNamePrefix(q, capped).stream()
+                .map(outlet -> new OutletMatch(outlet, null))
+                .toList());
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.demo.dto;
+
+// An outlet from the registry, with its distance from the caller when a position was given
+public record OutletMatch(OrganizationResponse outlet, Double distanceKm) {
+}
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.model.ReconciliationCheckpoint;
+import com.example.demo.repository.ReconciliationCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Keeps the monthly partitions of the transactions table ahead of the clock and detaches
+// months past retention. Detached partitions stay as ordinary tables for archiving or export;
+// nothing is dropped. Only active with the partitioned schema (PostgreSQL 14+).
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("transactions_p(\\d{6})");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${transactions.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${transactions.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    // Must stay above transactions.history-months and the risk payee history window
+    @Value("${transactions.partitioning.retention-months:24}")
+    private int retentionMonths;
+
+    private final ReentrantLock running = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${transactions.partitioning.cron:0 15 1 * * *}")
+    public void maintain() {
+        if (!enabled || !running.tryLock()) {
+            return;
+        }
+        try {
+            createAhead(YearMonth.now());
+            detachExpired(YearMonth.now().minusMonths(retentionMonths));
+        } catch (DataAccessException e) {
+            log.error("Transaction partition maintenance failed", e);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private void createAhead(YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute("create table if not exists " + partitionName(month)
+                    + " partition of transactions for values from ('" + month.atDay(1) + "') to ('"
+                    + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+
+    private void detachExpired(YearMonth cutoff) {
+        // A month is only detached once reconciliation has folded all of it into the ledger
+        LocalDateTime reconciledUpTo = checkpointRepository.findById(ReconciliationService.CHECKPOINT_NAME)
+                .map(ReconciliationCheckpoint::getWatermarkCreatedAt)
+                .orElse(LocalDateTime.MIN);
+        for (String partition : attachedPartitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(matcher.group(1), SUFFIX);
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            if (reconciledUpTo.isBefore(month.plusMonths(1).atDay(1).atStartOfDay())) {
+                log.warn("Keeping expired partition {}; reconciliation has not passed it yet", partition);
+                continue;
+            }
+            // Concurrently: inserts and queries on the other months are not blocked while it runs
+            jdbcTemplate.execute("alter table transactions detach partition " + partition + " concurrently");
+            meterRegistry.counter("transactions.partitions.detached").increment();
+            log.info("Detached transaction partition {}", partition);
+        }
+    }
+
+    private List<String> attachedPartitions() {
+        return jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid " +
+                        "join pg_class p on p.oid = i.inhparent " +
+                        "where p.relname = 'transactions' order by c.relname", String.class);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "transactions_p" + month.format(SUFFIX);
+    }
+}
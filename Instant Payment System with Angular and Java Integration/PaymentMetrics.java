@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Stage timers for the payment hot path. Operation and stage names are fixed
+// strings from code, so the tag space stays small; meters are cached after first use.
+@Component
+public class PaymentMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stage(String operation, String stage, long startNanos) {
+        stageTimers.computeIfAbsent(operation + '.' + stage, k -> Timer.builder("payment.stage")
+                        .tag("operation", operation)
+                        .tag("stage", stage)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Times from the start of commit to its completion for the current transaction
+    public void timeCommit(String operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStart;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStart = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                stage(operation, "commit", commitStart);
+            }
+        });
+    }
+
+    public void transferCompleted(String type, BigDecimal commission, BigDecimal vat) {
+        counter("payment.transfers", "type", type).increment();
+        if (commission != null && commission.signum() > 0) {
+            counter("payment.fees", "component", "commission").increment(commission.doubleValue());
+        }
+        if (vat != null && vat.signum() > 0) {
+            counter("payment.fees", "component", "vat").increment(vat.doubleValue());
+        }
+    }
+
+    public void rejected(String type, String reason) {
+        counter("payment.rejections", "type", type, "reason", reason).increment();
+    }
+
+    private Counter counter(String name, String... tags) {
+        return counters.computeIfAbsent(name + String.join(",", tags),
+                k -> Counter.builder(name).tags(tags).register(meterRegistry));
+    }
+}
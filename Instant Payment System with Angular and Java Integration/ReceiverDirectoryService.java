@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.event.UserChangedEvent;
+import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Service
+public class ReceiverDirectoryService {
+
+    private static final String EMAIL_PREFIX = "email:";
+    private static final String CELL_PREFIX = "cell:";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${directory.cache.max-size:100000}")
+    private long maxSize;
+
+    @Value("${directory.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${directory.negative-cache.max-size:50000}")
+    private long negativeMaxSize;
+
+    @Value("${directory.negative-cache.ttl-seconds:60}")
+    private long negativeTtlSeconds;
+
+    private Cache<String, DirectoryEntry> entries;
+    private Cache<String, Boolean> unknown;
+
+    @PostConstruct
+    void initCaches() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        unknown = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .build();
+    }
+
+    // Accepts either an email address or a cell number
+    public Optional<DirectoryEntry> resolve(String receiver) {
+        if (receiver == null || receiver.isBlank()) {
+            return Optional.empty();
+        }
+        String address = receiver.trim();
+        String key = address.indexOf('@') >= 0 ? EMAIL_PREFIX + address : CELL_PREFIX + address;
+
+        DirectoryEntry cached = entries.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (unknown.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+
+        Optional<DirectoryEntry> loaded = key.startsWith(EMAIL_PREFIX)
+                ? userRepository.findDirectoryEntryByEmail(address)
+                : userRepository.findDirectoryEntryByCellNumber(address);
+        if (loaded.isEmpty() && shardRouter.isEnabled()) {
+            // Remote entries are not invalidated by local events and rely on the TTL
+            loaded = shardRouter.locate(address);
+        }
+        if (loaded.isPresent()) {
+            DirectoryEntry entry = loaded.get();
+            entries.put(EMAIL_PREFIX + entry.getEmail(), entry);
+            entries.put(CELL_PREFIX + entry.getCellNumber(), entry);
+        } else {
+            unknown.put(key, Boolean.TRUE);
+        }
+        return loaded;
+    }
+
+    public void invalidate(String email, String cellNumber) {
+        if (email != null) {
+            entries.invalidate(EMAIL_PREFIX + email);
+            unknown.invalidate(EMAIL_PREFIX + email);
+        }
+        if (cellNumber != null) {
+            entries.invalidate(CELL_PREFIX + cellNumber);
+            unknown.invalidate(CELL_PREFIX + cellNumber);
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        event.getEmails().forEach(email -> invalidate(email, null));
+        event.getCellNumbers().forEach(cell -> invalidate(null, cell));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reconciliation_checkpoints")
+@Data
+public class ReconciliationCheckpoint {
+    @Id
+    private String name;
+    @Column(nullable = false)
+    private LocalDateTime watermarkCreatedAt;
+    @Column(nullable = false)
+    private String watermarkTransactionId;
+    @Column(nullable = false)
+    private long transactionsProcessed;
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ReconciliationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReconciliationCheckpointRepository extends JpaRepository<ReconciliationCheckpoint, String> {
+}
@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ReconciliationReport {
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime watermarkCreatedAt;
+    private String watermarkTransactionId;
+    private long transactionsProcessed;
+    private long unresolvedReceivers;
+    private int accountsChecked;
+    private int accountsInFlight;
+    private BigDecimal totalExpectedBalance = BigDecimal.ZERO;
+    private BigDecimal totalStoredBalance = BigDecimal.ZERO;
+    private BigDecimal totalDrift = BigDecimal.ZERO;
+    private List<BalanceMismatch> mismatches = new ArrayList<>();
+}
@@ -0,0 +1,383 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BalanceMismatch;
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.dto.ReconciliationReport;
+import com.example.demo.dto.TransferParties;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.model.LedgerBalance;
+import com.example.demo.model.ReconciliationCheckpoint;
+import com.example.demo.model.Transaction;
+import com.example.demo.model.User;
+import com.example.demo.repository.BalanceBucketRepository;
+import com.example.demo.repository.LedgerBalanceRepository;
+import com.example.demo.repository.ReconciliationCheckpointRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class ReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    static final String CHECKPOINT_NAME = "ledger";
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerBalanceRepository ledgerBalanceRepository;
+
+    @Autowired
+    private BalanceBucketRepository balanceBucketRepository;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("reconciliationExecutor")
+    private ThreadPoolTaskExecutor reconciliationExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${reconciliation.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${reconciliation.chunk-size:500}")
+    private int chunkSize;
+
+    // Transactions younger than this may still be uncommitted, so the watermark never passes them
+    @Value("${reconciliation.settle-lag-ms:5000}")
+    private long settleLagMs;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final AtomicReference<ReconciliationReport> lastReport = new AtomicReference<>();
+    private Timer runTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        runTimer = Timer.builder("ledger.reconciliation.duration").register(meterRegistry);
+        Gauge.builder("ledger.reconciliation.mismatches", lastReport,
+                        r -> r.get() == null ? 0 : r.get().getMismatches().size())
+                .register(meterRegistry);
+        Gauge.builder("ledger.reconciliation.drift", lastReport,
+                        r -> r.get() == null ? 0 : r.get().getTotalDrift().doubleValue())
+                .register(meterRegistry);
+        Gauge.builder("ledger.reconciliation.transactions", lastReport,
+                        r -> r.get() == null ? 0 : r.get().getTransactionsProcessed())
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${reconciliation.interval-ms:60000}", initialDelayString = "${reconciliation.initial-delay-ms:30000}")
+    public void scheduledRun() {
+        Thread current = Thread.currentThread();
+        int priority = current.getPriority();
+        current.setPriority(Thread.MIN_PRIORITY);
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Ledger reconciliation failed", e);
+        } finally {
+            current.setPriority(priority);
+        }
+    }
+
+    public Optional<ReconciliationReport> getLastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    public ReconciliationReport reconcile() {
+        if (!runLock.tryLock()) {
+            return getLastReport().orElseThrow(() -> ErrorCode.RECONCILIATION_IN_PROGRESS.exception());
+        }
+        try {
+            return runTimer.record(this::runOnce);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private ReconciliationReport runOnce() {
+        ReconciliationReport report = new ReconciliationReport();
+        report.setStartedAt(LocalDateTime.now());
+        LocalDateTime settledBefore = report.getStartedAt().minusNanos(settleLagMs * 1_000_000L);
+
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                .orElseGet(this::newCheckpoint);
+
+        while (true) {
+            List<Transaction> batch = transactionRepository.findAfterWatermark(
+                    checkpoint.getWatermarkCreatedAt(), checkpoint.getWatermarkTransactionId(),
+                    settledBefore, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            ChunkResult result = computeDeltas(batch, receiversByCell(batch));
+            Transaction last = batch.get(batch.size() - 1);
+            checkpoint = applyDeltas(result.deltas, checkpoint, last, batch.size());
+            report.setTransactionsProcessed(report.getTransactionsProcessed() + batch.size());
+            report.setUnresolvedReceivers(report.getUnresolvedReceivers() + result.unresolvedReceivers);
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        report.setWatermarkCreatedAt(checkpoint.getWatermarkCreatedAt());
+        report.setWatermarkTransactionId(checkpoint.getWatermarkTransactionId());
+        compareBalances(report, settledBefore);
+        report.setCompletedAt(LocalDateTime.now());
+        lastReport.set(report);
+
+        if (!report.getMismatches().isEmpty()) {
+            log.warn("Ledger reconciliation found {} mismatched accounts, total drift {}",
+                    report.getMismatches().size(), report.getTotalDrift());
+        }
+        return report;
+    }
+
+    // Rows written before receiverUserId was recorded name the receiver only by cell number;
+    // just those cells are resolved, in one query per batch
+    private Map<String, String> receiversByCell(List<Transaction> transactions) {
+        Set<String> cells = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getReceiverUserId() == null && creditsReceiver(transaction.getTransactionType())) {
+                cells.add(transaction.getReceiverCellNumber());
+            }
+        }
+        Map<String, String> userIdByCell = new HashMap<>();
+        if (!cells.isEmpty()) {
+            for (DirectoryEntry entry : userRepository.findDirectoryEntriesByCellNumberIn(cells)) {
+                userIdByCell.put(entry.getCellNumber(), entry.getUserId());
+            }
+        }
+        return userIdByCell;
+    }
+
+    // Splits the batch into chunks and folds each on the low-priority executor
+    private ChunkResult computeDeltas(List<Transaction> batch, Map<String, String> userIdByCell) {
+        List<CompletableFuture<ChunkResult>> futures = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<Transaction> chunk = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> foldChunk(chunk, userIdByCell), reconciliationExecutor));
+        }
+        ChunkResult merged = new ChunkResult();
+        for (CompletableFuture<ChunkResult> future : futures) {
+            ChunkResult part = future.join();
+            part.deltas.forEach((userId, delta) -> merged.deltas.merge(userId, delta, BigDecimal::add));
+            merged.unresolvedReceivers += part.unresolvedReceivers;
+        }
+        return merged;
+    }
+
+    private ChunkResult foldChunk(List<Transaction> chunk, Map<String, String> userIdByCell) {
+        ChunkResult result = new ChunkResult();
+        for (Transaction transaction : chunk) {
+            BigDecimal amount = orZero(transaction.getAmount());
+            BigDecimal fees = orZero(transaction.getCommissionAmount()).add(orZero(transaction.getVatAmount()));
+            // Cross-node transfers: the refund of an aborted send, and the receiving side of a
+            // committed one (its sender is on another node and reconciled there)
+            if ("REVERSAL".equals(transaction.getTransactionType())) {
+                result.deltas.merge(transaction.getSenderUserId(), amount.add(fees), BigDecimal::add);
+                continue;
+            }
+            if ("SHARD_CREDIT".equals(transaction.getTransactionType())) {
+                creditReceiver(result, transaction, amount, userIdByCell);
+                continue;
+            }
+            result.deltas.merge(transaction.getSenderUserId(), amount.add(fees).negate(), BigDecimal::add);
+
+            // Withdrawals are recorded as self-transactions; only transfers credit a receiver
+            if (creditsReceiver(transaction.getTransactionType())) {
+                creditReceiver(result, transaction, amount, userIdByCell);
+            }
+        }
+        return result;
+    }
+
+    private static void creditReceiver(ChunkResult result, Transaction transaction, BigDecimal amount,
+                                       Map<String, String> userIdByCell) {
+        String receiverId = receiverOf(transaction, userIdByCell);
+        if (receiverId == null) {
+            result.unresolvedReceivers++;
+        } else {
+            result.deltas.merge(receiverId, amount, BigDecimal::add);
+        }
+    }
+
+    private static String receiverOf(Transaction transaction, Map<String, String> userIdByCell) {
+        if (transaction.getReceiverUserId() != null) {
+            return transaction.getReceiverUserId();
+        }
+        return userIdByCell.get(transaction.getReceiverCellNumber());
+    }
+
+    private ReconciliationCheckpoint applyDeltas(Map<String, BigDecimal> deltas, ReconciliationCheckpoint checkpoint,
+                                                 Transaction last, int processed) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<String, LedgerBalance> existing = new HashMap<>();
+            ledgerBalanceRepository.findAllById(deltas.keySet()).forEach(b -> existing.put(b.getUserId(), b));
+            List<LedgerBalance> updated = new ArrayList<>(deltas.size());
+            deltas.forEach((userId, delta) -> {
+                LedgerBalance balance = existing.get(userId);
+                if (balance == null) {
+                    balance = new LedgerBalance();
+                    balance.setUserId(userId);
+                }
+                balance.setNetFlow(balance.getNetFlow().add(delta));
+                balance.setUpdatedAt(now);
+                updated.add(balance);
+            });
+            ledgerBalanceRepository.saveAll(updated);
+
+            checkpoint.setWatermarkCreatedAt(last.getCreatedAt());
+            checkpoint.setWatermarkTransactionId(last.getId());
+            checkpoint.setTransactionsProcessed(checkpoint.getTransactionsProcessed() + processed);
+            checkpoint.setUpdatedAt(now);
+            return checkpointRepository.save(checkpoint);
+        });
+    }
+
+    // Walks accounts a page at a time, loading only that page's ledger rows and bucket totals,
+    // so memory stays bounded by the batch size rather than the number of accounts
+    private void compareBalances(ReconciliationReport report, LocalDateTime settledBefore) {
+        int checked = 0;
+        int inFlightCount = 0;
+        BigDecimal totalExpected = BigDecimal.ZERO;
+        BigDecimal totalStored = BigDecimal.ZERO;
+        String afterId = "";
+        while (true) {
+            List<User> page = userRepository.findPage(afterId, PageRequest.of(0, batchSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<String> ids = new ArrayList<>(page.size());
+            for (User user : page) {
+                ids.add(user.getId());
+            }
+            Map<String, BigDecimal> bucketTotals = new HashMap<>();
+            for (Object[] row : balanceBucketRepository.sumByUserIds(ids)) {
+                bucketTotals.put((String) row[0], (BigDecimal) row[1]);
+            }
+            // Read after the balances, so any transfer whose effect the page could have seen has
+            // committed by now and is excluded
+            Set<String> inFlight = inFlightAccounts(page, settledBefore);
+            Map<String, BigDecimal> netFlows = new HashMap<>();
+            for (LedgerBalance balance : ledgerBalanceRepository.findAllById(ids)) {
+                netFlows.put(balance.getUserId(), balance.getNetFlow());
+            }
+
+            for (User user : page) {
+                if (inFlight.contains(user.getId())) {
+                    inFlightCount++;
+                    continue;
+                }
+                checked++;
+                BigDecimal expected = INITIAL_BALANCE.add(netFlows.getOrDefault(user.getId(), BigDecimal.ZERO));
+                BigDecimal stored = orZero(user.getBalance()).add(bucketTotals.getOrDefault(user.getId(), BigDecimal.ZERO));
+                totalExpected = totalExpected.add(expected);
+                totalStored = totalStored.add(stored);
+                if (expected.compareTo(stored) != 0) {
+                    BalanceMismatch mismatch = new BalanceMismatch();
+                    mismatch.setUserId(user.getId());
+                    mismatch.setEmail(user.getEmail());
+                    mismatch.setExpectedBalance(expected);
+                    mismatch.setStoredBalance(stored);
+                    mismatch.setDrift(stored.subtract(expected));
+                    report.getMismatches().add(mismatch);
+                }
+            }
+            afterId = page.get(page.size() - 1).getId();
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        report.setAccountsChecked(checked);
+        report.setAccountsInFlight(inFlightCount);
+        report.setTotalExpectedBalance(totalExpected);
+        report.setTotalStoredBalance(totalStored);
+        report.setTotalDrift(totalStored.subtract(totalExpected));
+    }
+
+    // Accounts of the page touched by transactions past the watermark have moved on; comparing
+    // them would report false drift. Balances only show committed work, and anything committed
+    // before this query was written before now, so [settledBefore, now) covers it.
+    private Set<String> inFlightAccounts(List<User> page, LocalDateTime settledBefore) {
+        Map<String, String> userIdByCell = new HashMap<>();
+        for (User user : page) {
+            userIdByCell.put(user.getCellNumber(), user.getId());
+        }
+        Set<String> accounts = new HashSet<>();
+        for (TransferParties parties : transactionRepository.findPartiesBetween(settledBefore, LocalDateTime.now(),
+                new ArrayList<>(userIdByCell.values()), userIdByCell.keySet())) {
+            accounts.add(parties.getSenderUserId());
+            if (creditsReceiver(parties.getTransactionType())) {
+                accounts.add(parties.getReceiverUserId() != null
+                        ? parties.getReceiverUserId() : userIdByCell.get(parties.getReceiverCellNumber()));
+            }
+        }
+        return accounts;
+    }
+
+    private ReconciliationCheckpoint newCheckpoint() {
+        ReconciliationCheckpoint checkpoint = new ReconciliationCheckpoint();
+        checkpoint.setName(CHECKPOINT_NAME);
+        checkpoint.setWatermarkCreatedAt(EPOCH);
+        checkpoint.setWatermarkTransactionId("");
+        return checkpoint;
+    }
+
+    private static boolean isWithdrawal(String type) {
+        return "FULL_WITHDRAWAL".equals(type) || "PARTIAL_WITHDRAWAL".equals(type);
+    }
+
+    // Sends and the receiving side of cross-node transfers credit a receiver; reversals refund the sender
+    private static boolean creditsReceiver(String type) {
+        return !isWithdrawal(type) && !"REVERSAL".equals(type);
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private static class ChunkResult {
+        private final Map<String, BigDecimal> deltas = new HashMap<>();
+        private long unresolvedReceivers;
+    }
+}
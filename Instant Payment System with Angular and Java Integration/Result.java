@@ -0,0 +1,30 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.ErrorCode;
+
+// Outcome of an operation whose expected failures are part of its contract. Callers that
+// can handle a rejection inline branch on it; orElseThrow() turns it into the shared
+// stackless exception for callers that cannot.
+public sealed interface Result<T> permits Result.Ok, Result.Rejected {
+
+    record Ok<T>(T value) implements Result<T> {
+    }
+
+    record Rejected<T>(ErrorCode code) implements Result<T> {
+    }
+
+    static <T> Result<T> ok(T value) {
+        return new Ok<>(value);
+    }
+
+    static <T> Result<T> rejected(ErrorCode code) {
+        return new Rejected<>(code);
+    }
+
+    default T orElseThrow() {
+        if (this instanceof Ok<T> ok) {
+            return ok.value();
+        }
+        throw ((Rejected<T>) this).code().exception();
+    }
+}
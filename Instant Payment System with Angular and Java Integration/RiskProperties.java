@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "risk")
+@Data
+public class RiskProperties {
+
+    private boolean enabled = true;
+    private int newRecipientsReview = 5;
+    private int newRecipientsBlock = 10;
+    private int payeeHistoryDays = 30;
+    private List<Rule> rules = new ArrayList<>();
+
+    public enum Scope { SENDER, RECEIVER }
+
+    public enum Window { MINUTE, HOUR, DAY }
+
+    public enum Metric { COUNT, AMOUNT }
+
+    @Data
+    public static class Rule {
+        private Scope scope;
+        private Window window;
+        private Metric metric;
+        private BigDecimal reviewAbove;
+        private BigDecimal blockAbove;
+    }
+}
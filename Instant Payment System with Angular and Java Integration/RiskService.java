@@ -0,0 +1,301 @@
+package com.example.demo.service;
+
+import com.example.demo.config.RiskProperties;
+import com.example.demo.dto.RiskAssessment;
+import com.example.demo.dto.RiskDecision;
+import com.example.demo.dto.TransferActivity;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class RiskService {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskService.class);
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    @Autowired
+    private RiskProperties riskProperties;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${risk.rebuild-page-size:5000}")
+    private int rebuildPageSize;
+
+    // How long a transfer waits for the startup rebuild before it is turned away
+    @Value("${risk.rebuild-wait-ms:30000}")
+    private long rebuildWaitMs;
+
+    // Open once the counters hold recent history; until then a check would pass on empty windows
+    private final CountDownLatch rebuilt = new CountDownLatch(1);
+    private final ConcurrentHashMap<String, AccountVelocity> senders = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AccountVelocity> receivers = new ConcurrentHashMap<>();
+    // Sender -> payee cell -> when it was last paid; trimmed to the payee history window
+    // Inner maps are read freely but only written inside compute on their sender's entry
+    private final ConcurrentHashMap<String, Map<String, Long>> knownPayees = new ConcurrentHashMap<>();
+
+    // Evaluates the transfer against the configured rules and, unless blocked, records it.
+    // The recording is undone if the surrounding transaction rolls back.
+    public RiskAssessment assessTransfer(String senderId, String receiverCellNumber, BigDecimal amount) {
+        if (!riskProperties.isEnabled()) {
+            return new RiskAssessment(RiskDecision.ALLOW, null);
+        }
+        awaitRebuild();
+        long cents = toCents(amount);
+        long now = System.currentTimeMillis();
+        Map<String, Long> payees = knownPayees.get(senderId);
+        Long lastPaid = payees != null ? payees.get(receiverCellNumber) : null;
+        boolean newRecipient = lastPaid == null || lastPaid < now - payeeHistoryMillis();
+
+        // Reserve, then judge: the transfer is added to its counters before the rules read them,
+        // so two concurrent transfers cannot both pass a limit that only one of them fits under.
+        // Everything is a CAS on the counters, with no lock on any account. The price is that
+        // racing transfers near a limit may each see the other's reservation and both be held
+        // back, which errs on the safe side.
+        AccountVelocity sender = reserve(senders, senderId, now, cents, newRecipient);
+        AccountVelocity receiver = reserve(receivers, receiverCellNumber, now, cents, false);
+        RiskAssessment assessment = assess(sender, receiver, now, newRecipient);
+
+        if (assessment.getDecision() == RiskDecision.BLOCK) {
+            sender.unrecord(now, cents, newRecipient);
+            receiver.unrecord(now, cents, false);
+        } else {
+            rememberPayee(senderId, receiverCellNumber, now);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_ROLLED_BACK) {
+                            sender.unrecord(now, cents, newRecipient);
+                            receiver.unrecord(now, cents, false);
+                            forgetPayee(senderId, receiverCellNumber, now, lastPaid);
+                        }
+                    }
+                });
+            }
+        }
+        meterRegistry.counter("risk.decisions", "decision", assessment.getDecision().name()).increment();
+        return assessment;
+    }
+
+    private RiskAssessment assess(AccountVelocity sender, AccountVelocity receiver, long now, boolean newRecipient) {
+        RiskAssessment assessment = new RiskAssessment(RiskDecision.ALLOW, null);
+        for (RiskProperties.Rule rule : riskProperties.getRules()) {
+            AccountVelocity velocity = rule.getScope() == RiskProperties.Scope.SENDER ? sender : receiver;
+            long value = velocity.current(rule.getWindow(), rule.getMetric(), now);
+            assessment = escalate(assessment, value, rule.getReviewAbove(), rule.getBlockAbove(),
+                    rule.getScope() + " " + rule.getMetric() + " per " + rule.getWindow());
+        }
+        if (newRecipient) {
+            assessment = escalate(assessment, sender.newRecipients.count(now),
+                    BigDecimal.valueOf(riskProperties.getNewRecipientsReview()),
+                    BigDecimal.valueOf(riskProperties.getNewRecipientsBlock()), "new recipients per DAY");
+        }
+        return assessment;
+    }
+
+    // A reservation that lands on an entry eviction has retired moves to a fresh one. One that
+    // races the retirement itself can still be dropped with the entry; that only happens to an
+    // account idle for a day, so the limit it under-counts is at most that single transfer.
+    private static AccountVelocity reserve(ConcurrentHashMap<String, AccountVelocity> accounts, String key,
+                                           long now, long cents, boolean newRecipient) {
+        while (true) {
+            AccountVelocity velocity = accounts.computeIfAbsent(key, k -> new AccountVelocity());
+            velocity.record(now, cents, newRecipient);
+            if (!velocity.retired) {
+                return velocity;
+            }
+        }
+    }
+
+    private void awaitRebuild() {
+        try {
+            if (rebuilt.await(rebuildWaitMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw ErrorCode.RISK_UNAVAILABLE.exception();
+    }
+
+    // Transfers wait in awaitRebuild until this finishes; history is read a page at a time so
+    // thirty days of activity never sits in memory at once
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildFromHistory() {
+        try {
+            LocalDateTime since = LocalDateTime.now().minusDays(riskProperties.getPayeeHistoryDays());
+            long dayAgo = System.currentTimeMillis() - DAY_MILLIS;
+            int replayed = 0;
+            LocalDateTime afterCreatedAt = since;
+            String afterId = "";
+            List<TransferActivity> page;
+            do {
+                page = transactionRepository.findTransferActivity("SEND_MONEY", afterCreatedAt, afterId,
+                        PageRequest.of(0, rebuildPageSize));
+                for (TransferActivity transfer : page) {
+                    if (replay(transfer, dayAgo)) {
+                        replayed++;
+                    }
+                }
+                if (!page.isEmpty()) {
+                    TransferActivity last = page.get(page.size() - 1);
+                    afterCreatedAt = last.getCreatedAt();
+                    afterId = last.getId();
+                }
+            } while (page.size() == rebuildPageSize);
+            log.info("Rebuilt velocity counters from {} recent transfers", replayed);
+        } finally {
+            rebuilt.countDown();
+        }
+    }
+
+    // Returns whether the transfer fell inside the day the velocity windows cover
+    private boolean replay(TransferActivity transfer, long dayAgo) {
+        String senderId = transfer.getSenderUserId();
+        String receiverCell = transfer.getReceiverCellNumber();
+        long at = transfer.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Map<String, Long> payees = knownPayees.get(senderId);
+        boolean firstSeen = payees == null || !payees.containsKey(receiverCell);
+        rememberPayee(senderId, receiverCell, at);
+        if (at < dayAgo) {
+            return false;
+        }
+        long cents = toCents(transfer.getAmount());
+        senders.computeIfAbsent(senderId, k -> new AccountVelocity()).record(at, cents, firstSeen);
+        receivers.computeIfAbsent(receiverCell, k -> new AccountVelocity()).record(at, cents, false);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${risk.eviction-interval-ms:600000}")
+    public void evictIdleAccounts() {
+        long cutoff = System.currentTimeMillis() - DAY_MILLIS;
+        evictIdle(senders, cutoff);
+        evictIdle(receivers, cutoff);
+        long payeeCutoff = System.currentTimeMillis() - payeeHistoryMillis();
+        for (String senderId : knownPayees.keySet()) {
+            knownPayees.computeIfPresent(senderId, (k, payees) -> {
+                payees.values().removeIf(lastPaid -> lastPaid < payeeCutoff);
+                return payees.isEmpty() ? null : payees;
+            });
+        }
+    }
+
+    // The flag is set before the entry leaves the map, so a transfer that reserves on it
+    // afterwards sees the flag and moves to a fresh entry; see reserve
+    private static void evictIdle(ConcurrentHashMap<String, AccountVelocity> accounts, long cutoff) {
+        accounts.forEach((id, velocity) -> {
+            if (velocity.lastActivity < cutoff) {
+                velocity.retired = true;
+                accounts.remove(id, velocity);
+            }
+        });
+    }
+
+    // Writes go through compute so eviction can never drop a sender's map between a
+    // lookup and the write into it
+    private void rememberPayee(String senderId, String receiverCell, long at) {
+        knownPayees.compute(senderId, (k, payees) -> {
+            Map<String, Long> updated = payees != null ? payees : new ConcurrentHashMap<String, Long>();
+            updated.put(receiverCell, at);
+            return updated;
+        });
+    }
+
+    private void forgetPayee(String senderId, String receiverCell, long at, Long previous) {
+        knownPayees.computeIfPresent(senderId, (k, payees) -> {
+            if (previous == null) {
+                payees.remove(receiverCell, at);
+            } else {
+                payees.replace(receiverCell, at, previous);
+            }
+            return payees.isEmpty() ? null : payees;
+        });
+    }
+
+    private long payeeHistoryMillis() {
+        return TimeUnit.DAYS.toMillis(riskProperties.getPayeeHistoryDays());
+    }
+
+    private static RiskAssessment escalate(RiskAssessment current, long value, BigDecimal reviewAbove,
+                                           BigDecimal blockAbove, String rule) {
+        if (blockAbove != null && value > blockAbove.longValue() && current.getDecision() != RiskDecision.BLOCK) {
+            return new RiskAssessment(RiskDecision.BLOCK, rule);
+        }
+        if (reviewAbove != null && value > reviewAbove.longValue() && current.getDecision() == RiskDecision.ALLOW) {
+            return new RiskAssessment(RiskDecision.REVIEW, rule);
+        }
+        return current;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    private static class AccountVelocity {
+        private final SlidingWindowCounter minute = new SlidingWindowCounter(TimeUnit.MINUTES.toMillis(1), 60);
+        private final SlidingWindowCounter hour = new SlidingWindowCounter(TimeUnit.HOURS.toMillis(1), 60);
+        private final SlidingWindowCounter day = new SlidingWindowCounter(DAY_MILLIS, 24);
+        private final SlidingWindowCounter newRecipients = new SlidingWindowCounter(DAY_MILLIS, 24);
+        private volatile long lastActivity = System.currentTimeMillis();
+        // Set once evicted; the entry is no longer in the map
+        private volatile boolean retired;
+
+        void record(long at, long cents, boolean newRecipient) {
+            minute.add(at, 1, cents);
+            hour.add(at, 1, cents);
+            day.add(at, 1, cents);
+            if (newRecipient) {
+                newRecipients.add(at, 1, 0);
+            }
+            lastActivity = Math.max(lastActivity, at);
+        }
+
+        void unrecord(long at, long cents, boolean newRecipient) {
+            minute.add(at, -1, -cents);
+            hour.add(at, -1, -cents);
+            day.add(at, -1, -cents);
+            if (newRecipient) {
+                newRecipients.add(at, -1, 0);
+            }
+        }
+
+        // Value of the window, already including the transfer being assessed; amounts compare in rands
+        long current(RiskProperties.Window window, RiskProperties.Metric metric, long now) {
+            SlidingWindowCounter counter = switch (window) {
+                case MINUTE -> minute;
+                case HOUR -> hour;
+                case DAY -> day;
+            };
+            if (metric == RiskProperties.Metric.COUNT) {
+                return counter.count(now);
+            }
+            return counter.amountCents(now) / 100;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    @Value("${reconciliation.threads:2}")
+    private int reconciliationThreads;
+
+    @Value("${standing-orders.threads:4}")
+    private int standingOrderThreads;
+
+    @Value("${statements.threads:4}")
+    private int statementThreads;
+
+    // Background work must never compete with request threads for CPU. This stays on
+    // platform threads even with spring.threads.virtual.enabled, since virtual threads ignore priority.
+    @Bean
+    public ThreadPoolTaskExecutor reconciliationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(reconciliationThreads);
+        executor.setMaxPoolSize(reconciliationThreads);
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.setDaemon(true);
+        executor.setThreadNamePrefix("reconcile-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor shardTransferExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("shard-transfer-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Caps how many standing orders hit the DB at once during month-end spikes; overflow
+    // runs on the scheduler thread, which slows the wheel instead of dropping work
+    @Bean
+    public ThreadPoolTaskExecutor standingOrderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(standingOrderThreads);
+        executor.setMaxPoolSize(standingOrderThreads);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("standing-order-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Month-end statement rendering; low priority like reconciliation
+    @Bean
+    public ThreadPoolTaskExecutor statementExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(statementThreads);
+        executor.setMaxPoolSize(statementThreads);
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.setDaemon(true);
+        executor.setThreadNamePrefix("statement-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.config;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.model.naming.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Checks the live schema against the entity mappings before the web server starts: every
+// table and column, every index declared in @Table(indexes) and every unique column. A
+// database file from an older build, or one whose indexes were dropped, fails startup
+// instead of surfacing later as errors or full scans.
+@Component
+public class SchemaVerifier implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaVerifier.class);
+    // The same physical naming Spring Boot configures for Hibernate
+    private static final CamelCaseToUnderscoresNamingStrategy NAMING = new CamelCaseToUnderscoresNamingStrategy();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${schema.verify:false}")
+    private boolean enabled;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        List<String> problems = new ArrayList<>();
+        int tables = 0;
+        int indexes = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                Class<?> type = entity.getJavaType();
+                Table table = type.getAnnotation(Table.class);
+                String tableName = table != null && !table.name().isEmpty() ? table.name() : physical(type.getSimpleName());
+                Set<String> columns = columns(metaData, tableName);
+                if (columns.isEmpty()) {
+                    problems.add("missing table " + tableName);
+                    continue;
+                }
+                tables++;
+                Map<String, List<String>> present = indexes(metaData, tableName, false);
+                Map<String, List<String>> unique = indexes(metaData, tableName, true);
+                for (Attribute<?, ?> attribute : entity.getAttributes()) {
+                    if (!(attribute.getJavaMember() instanceof Field field)) {
+                        continue;
+                    }
+                    Column column = field.getAnnotation(Column.class);
+                    String columnName = column != null && !column.name().isEmpty() ? column.name() : physical(field.getName());
+                    if (!columns.contains(columnName)) {
+                        problems.add("missing column " + tableName + "." + columnName);
+                    } else if (column != null && column.unique() && !unique.containsValue(List.of(columnName))) {
+                        problems.add("missing unique index on " + tableName + "." + columnName);
+                    }
+                }
+                if (table == null) {
+                    continue;
+                }
+                for (Index index : table.indexes()) {
+                    List<String> expected = Arrays.stream(index.columnList().split(","))
+                            .map(part -> physical(part.trim().split("\\s+")[0]))
+                            .toList();
+                    if (present.containsValue(expected)) {
+                        indexes++;
+                    } else {
+                        problems.add("missing index " + index.name() + " on " + tableName + expected);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Schema verification could not read database metadata", e);
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Schema verification failed:\n  " + String.join("\n  ", problems));
+        }
+        log.info("Schema verified: {} tables, {} declared indexes", tables, indexes);
+    }
+
+    private static String physical(String logicalName) {
+        return NAMING.toPhysicalColumnName(Identifier.toIdentifier(logicalName), null).getText().toLowerCase(Locale.ROOT);
+    }
+
+    // Unquoted identifiers are stored upper-case by H2 and lower-case by PostgreSQL
+    private static String stored(DatabaseMetaData metaData, String name) throws SQLException {
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return name.toUpperCase(Locale.ROOT);
+        }
+        return metaData.storesLowerCaseIdentifiers() ? name.toLowerCase(Locale.ROOT) : name;
+    }
+
+    private static Set<String> columns(DatabaseMetaData metaData, String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (ResultSet rs = metaData.getColumns(null, null, stored(metaData, table), null)) {
+            while (rs.next()) {
+                columns.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+        return columns;
+    }
+
+    // Index name to its columns in key order
+    private static Map<String, List<String>> indexes(DatabaseMetaData metaData, String table, boolean uniqueOnly) throws SQLException {
+        Map<String, TreeMap<Short, String>> byName = new TreeMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(null, null, stored(metaData, table), uniqueOnly, true)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (name == null || column == null) {
+                    continue;
+                }
+                byName.computeIfAbsent(name, n -> new TreeMap<>()).put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+            }
+        }
+        Map<String, List<String>> indexes = new TreeMap<>();
+        byName.forEach((name, columns) -> indexes.put(name, List.copyOf(columns.values())));
+        return indexes;
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.demo.config;
 
+import com.example.demo.security.BoundedPasswordEncoder;
 import com.example.demo.security.JwtAuthFilter;
 import com.example.demo.security.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -25,9 +27,21 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthFilter jwtAuthFilter;
 
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    // 0 leaves BCrypt unbounded, -1 bounds it to the number of cores
+    @Value("${security.bcrypt.max-concurrency:0}")
+    private int bcryptMaxConcurrency;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        PasswordEncoder encoder = new BCryptPasswordEncoder();
+        if (bcryptMaxConcurrency == 0) {
+            return encoder;
+        }
+        int permits = bcryptMaxConcurrency < 0 ? Runtime.getRuntime().availableProcessors() : bcryptMaxConcurrency;
+        return new BoundedPasswordEncoder(encoder, permits);
     }
 
     @Bean
@@ -35,7 +49,13 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers('/api/auth/**').permitAll()
+                        .requestMatchers("/api/auth/**").permitAll()
+                        // Actuator listens on its own port bound to an internal interface; requests
+                        // arriving there are trusted, anything else on /actuator stays closed
+                        .requestMatchers(request -> request.getLocalPort() == managementPort).permitAll()
+                        .requestMatchers("/actuator/**").denyAll()
+                        // Authenticated by the shared sharding secret inside the controller
+                        .requestMatchers("/internal/shard/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
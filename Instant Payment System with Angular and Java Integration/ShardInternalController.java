@@ -0,0 +1,76 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.dto.ShardTransferRequest;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.ShardRouter;
+import com.example.demo.service.ShardTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+
+// Node-to-node endpoints; callers must present the shared sharding secret
+@RestController
+@RequestMapping("/internal/shard")
+public class ShardInternalController {
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardTransferService shardTransferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Local accounts only, never fans out again
+    @GetMapping("/locate")
+    public ResponseEntity<DirectoryEntry> locate(@RequestParam String address, HttpServletRequest request) {
+        if (!shardRouter.isTrusted(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Optional<DirectoryEntry> entry = address.indexOf('@') >= 0
+                ? userRepository.findDirectoryEntryByEmail(address)
+                : userRepository.findDirectoryEntryByCellNumber(address);
+        return entry.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/transfers/prepare")
+    public ResponseEntity<Void> prepare(@RequestBody ShardTransferRequest transfer, HttpServletRequest request) {
+        if (!shardRouter.isTrusted(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.status(shardTransferService.prepare(transfer)).build();
+    }
+
+    @PostMapping("/transfers/{id}/commit")
+    public ResponseEntity<Void> commit(@PathVariable String id, HttpServletRequest request) {
+        if (!shardRouter.isTrusted(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.status(shardTransferService.commit(id)).build();
+    }
+
+    @PostMapping("/transfers/{id}/abort")
+    public ResponseEntity<Void> abort(@PathVariable String id, HttpServletRequest request) {
+        if (!shardRouter.isTrusted(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.status(shardTransferService.abort(id)).build();
+    }
+
+    // Lets a participant holding an in-doubt transfer learn the coordinator's decision
+    @GetMapping("/transfers/{id}")
+    public ResponseEntity<Map<String, String>> state(@PathVariable String id, HttpServletRequest request) {
+        if (!shardRouter.isTrusted(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        String state = shardTransferService.stateOf(id);
+        return state == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(Map.of("state", state));
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ShardingProperties;
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.exception.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Component
+public class ShardRouter {
+
+    public static final String FORWARDED_HEADER = "X-Shard-Forwarded";
+    public static final String SECRET_HEADER = "X-Shard-Secret";
+    public static final String USER_ID_HEADER = "X-Shard-User-Id";
+
+    private static final Set<String> FORWARDED_REQUEST_HEADERS = Set.of("authorization", "content-type", "accept", "if-none-match");
+    private static final Set<String> FORWARDED_RESPONSE_HEADERS = Set.of("content-type", "etag");
+
+    @Autowired
+    private ShardingProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ConsistentHashRing ring;
+    private HttpClient client;
+
+    @PostConstruct
+    void init() {
+        if (properties.isEnabled()) {
+            if (properties.getNodeId() < 0 || properties.getNodeId() >= properties.getNodes().size()) {
+                throw new IllegalStateException("sharding.node-id must index sharding.nodes");
+            }
+            // The secret is all that separates peer calls from client calls
+            String secret = properties.getInternalSecret();
+            if (secret == null || secret.isBlank() || secret.startsWith("change-me")) {
+                throw new IllegalStateException("sharding.internal-secret must be set when sharding is enabled");
+            }
+            ring = new ConsistentHashRing(properties.getNodes().size(), properties.getVirtualNodes());
+            client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofMillis(properties.getRequestTimeoutMs()))
+                    .build();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int localNode() {
+        return properties.getNodeId();
+    }
+
+    public int ownerOf(String userId) {
+        return isEnabled() ? ring.nodeFor(userId) : properties.getNodeId();
+    }
+
+    public boolean isLocal(String userId) {
+        return ownerOf(userId) == properties.getNodeId();
+    }
+
+    public String newUserId() {
+        return UUID.randomUUID().toString();
+    }
+
+    public boolean isTrusted(HttpServletRequest request) {
+        String secret = request.getHeader(SECRET_HEADER);
+        return isEnabled() && secret != null && !properties.getInternalSecret().isEmpty()
+                && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                        properties.getInternalSecret().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Only a peer holding the shared secret may mark a request as already routed;
+    // anyone else sending the header is routed like any other client
+    public boolean isForwarded(HttpServletRequest request) {
+        return request.getHeader(FORWARDED_HEADER) != null && isTrusted(request);
+    }
+
+    // Asks every other node whether it owns the email or cell number. A node that cannot
+    // answer leaves the result unknown, so that fails the lookup instead of reading as absent
+    public Optional<DirectoryEntry> locate(String address) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        String path = "/internal/shard/locate?address=" + URLEncoder.encode(address, StandardCharsets.UTF_8);
+        List<CompletableFuture<Optional<DirectoryEntry>>> lookups = new ArrayList<>();
+        for (int node = 0; node < properties.getNodes().size(); node++) {
+            if (node == properties.getNodeId()) {
+                continue;
+            }
+            lookups.add(client.sendAsync(internalRequest(node, path).GET().build(), HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(this::readEntry));
+        }
+        boolean unanswered = false;
+        for (CompletableFuture<Optional<DirectoryEntry>> lookup : lookups) {
+            try {
+                Optional<DirectoryEntry> entry = lookup.join();
+                if (entry.isPresent()) {
+                    return entry;
+                }
+            } catch (CompletionException e) {
+                unanswered = true;
+            }
+        }
+        if (unanswered) {
+            throw ErrorCode.SHARD_UNAVAILABLE.exception();
+        }
+        return Optional.empty();
+    }
+
+    public HttpResponse<String> postInternal(int node, String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = internalRequest(node, path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    public HttpResponse<String> getInternal(int node, String path) throws IOException, InterruptedException {
+        return client.send(internalRequest(node, path).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Replays the client's request on the owning node and copies the answer back verbatim
+    public void forward(HttpServletRequest request, byte[] body, HttpServletResponse response, int node,
+                        String assignedUserId) throws IOException {
+        String query = request.getQueryString();
+        URI target = URI.create(properties.getNodes().get(node) + request.getRequestURI() + (query != null ? "?" + query : ""));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+                .timeout(Duration.ofMillis(properties.getRequestTimeoutMs()))
+                .header(FORWARDED_HEADER, String.valueOf(properties.getNodeId()))
+                .header(SECRET_HEADER, properties.getInternalSecret())
+                .method(request.getMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (FORWARDED_REQUEST_HEADERS.contains(name.toLowerCase())) {
+                builder.header(name, request.getHeader(name));
+            }
+        }
+        if (assignedUserId != null) {
+            builder.header(USER_ID_HEADER, assignedUserId);
+        }
+        try {
+            HttpResponse<byte[]> upstream = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            response.setStatus(upstream.statusCode());
+            upstream.headers().map().forEach((name, values) -> {
+                if (FORWARDED_RESPONSE_HEADERS.contains(name.toLowerCase())) {
+                    values.forEach(value -> response.addHeader(name, value));
+                }
+            });
+            response.getOutputStream().write(upstream.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        } catch (ConnectException e) {
+            // Never reached the owning node, so the client may safely retry
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        } catch (IOException e) {
+            // The owning node may have applied it; the outcome is unknown
+            response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+        }
+    }
+
+    private HttpRequest.Builder internalRequest(int node, String path) {
+        return HttpRequest.newBuilder(URI.create(properties.getNodes().get(node) + path))
+                .timeout(Duration.ofMillis(properties.getRequestTimeoutMs()))
+                .header(SECRET_HEADER, properties.getInternalSecret());
+    }
+
+    private Optional<DirectoryEntry> readEntry(HttpResponse<byte[]> response) {
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Locate answered " + response.statusCode());
+        }
+        try {
+            return Optional.of(objectMapper.readValue(response.body(), DirectoryEntry.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
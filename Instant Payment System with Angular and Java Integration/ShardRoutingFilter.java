@@ -0,0 +1,56 @@
+package com.example.demo.config;
+
+import com.example.demo.security.JwtUtil;
+import com.example.demo.service.ShardRouter;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Sends account requests to the node that owns the account, named by the token's uid claim.
+// Runs ahead of the security chain so a non-owner never touches its own database.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !shardRouter.isEnabled()
+                || shardRouter.isForwarded(request)
+                || !(path.startsWith("/api/transactions/") || path.startsWith("/api/users/")
+                        || path.startsWith("/api/standing-orders") || path.startsWith("/api/statements/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        String userId = null;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                userId = jwtUtil.extractUserId(authHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Left to the security chain to reject
+            }
+        }
+        if (userId == null || shardRouter.isLocal(userId)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        shardRouter.forward(request, request.getInputStream().readAllBytes(), response, shardRouter.ownerOf(userId), null);
+    }
+}
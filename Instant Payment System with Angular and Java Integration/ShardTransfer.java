@@ -0,0 +1,44 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Durable state of a cross-node transfer. The sender's node holds the OUTBOUND row and
+// coordinates; the receiver's node holds the INBOUND row with the same id.
+@Entity
+@Table(name = "shard_transfers", indexes = {
+        @Index(name = "idx_shard_transfers_recovery", columnList = "direction, state, updatedAt")
+})
+@Data
+public class ShardTransfer {
+    @Id
+    private String id;
+    // Coordinator and recovery can race on the same row; the loser retries on the next pass
+    @Version
+    private long version;
+    @Column(nullable = false)
+    private String direction;
+    @Column(nullable = false)
+    private String state;
+    private String transactionId;
+    @Column(nullable = false)
+    private String senderUserId;
+    @Column(nullable = false)
+    private String receiverUserId;
+    @Column(nullable = false)
+    private String receiverCellNumber;
+    @Column(nullable = false)
+    private BigDecimal amount;
+    @Column(nullable = false)
+    private BigDecimal totalDeduction = BigDecimal.ZERO;
+    @Column(nullable = false)
+    private int peerNode;
+    @Column(nullable = false)
+    private int attempts;
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,11 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ShardTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ShardTransferRepository extends JpaRepository<ShardTransfer, String> {
+    List<ShardTransfer> findByDirectionAndStateInAndUpdatedAtBefore(String direction, Collection<String> states, LocalDateTime updatedAt);
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class ShardTransferRequest {
+    private String transferId;
+    private String senderUserId;
+    private String receiverUserId;
+    private String receiverCellNumber;
+    private BigDecimal amount;
+    private int coordinatorNode;
+}
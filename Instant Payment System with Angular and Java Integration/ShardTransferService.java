@@ -0,0 +1,406 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ShardingProperties;
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.dto.ShardTransferRequest;
+import com.example.demo.model.ShardTransfer;
+import com.example.demo.model.Transaction;
+import com.example.demo.repository.ShardTransferRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Two-phase reserve/commit for transfers whose receiver lives on another node.
+//
+// Sender's node (coordinator):  RESERVED -> COMMITTING -> COMMITTED, or RESERVED -> ABORTED
+// Receiver's node (participant): PREPARED -> COMMITTED, or PREPARED -> ABORTED
+//
+// RESERVED is written in the same transaction that debits the sender, and COMMITTING is the
+// durable commit decision. The participant only credits on commit, so a coordinator that
+// never reached COMMITTING can always abort and refund. A participant that can no longer
+// credit (the receiver was deleted after prepare) refuses the commit, and the coordinator
+// refunds from COMMITTING as well. Every step is idempotent and in-doubt rows are re-driven
+// by recover() after a crash.
+@Service
+public class ShardTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardTransferService.class);
+
+    public static final String OUTBOUND = "OUTBOUND";
+    public static final String INBOUND = "INBOUND";
+    public static final String RESERVED = "RESERVED";
+    public static final String PREPARED = "PREPARED";
+    public static final String COMMITTING = "COMMITTING";
+    public static final String COMMITTED = "COMMITTED";
+    public static final String ABORTED = "ABORTED";
+
+    @Autowired
+    private ShardTransferRepository shardTransferRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardingProperties properties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    @Qualifier("shardTransferExecutor")
+    private ThreadPoolTaskExecutor shardTransferExecutor;
+
+    // Runs inside sendMoney's transaction, after the sender has been debited
+    public void reserve(Transaction transaction, DirectoryEntry receiver, BigDecimal totalDeduction) {
+        ShardTransfer transfer = new ShardTransfer();
+        transfer.setId(UUID.randomUUID().toString());
+        transfer.setDirection(OUTBOUND);
+        transfer.setState(RESERVED);
+        transfer.setTransactionId(transaction.getId());
+        transfer.setSenderUserId(transaction.getSenderUserId());
+        transfer.setReceiverUserId(receiver.getUserId());
+        transfer.setReceiverCellNumber(receiver.getCellNumber());
+        transfer.setAmount(transaction.getAmount());
+        transfer.setTotalDeduction(totalDeduction);
+        transfer.setPeerNode(shardRouter.ownerOf(receiver.getUserId()));
+        shardTransferRepository.save(transfer);
+
+        String id = transfer.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                shardTransferExecutor.execute(() -> drive(id));
+            }
+        });
+    }
+
+    public void drive(String id) {
+        try {
+            ShardTransfer transfer = shardTransferRepository.findById(id).orElse(null);
+            if (transfer == null) {
+                return;
+            }
+            if (RESERVED.equals(transfer.getState())) {
+                HttpResponse<String> prepared = shardRouter.postInternal(transfer.getPeerNode(),
+                        "/internal/shard/transfers/prepare", toRequest(transfer));
+                if (prepared.statusCode() == 409 || prepared.statusCode() == 404) {
+                    abortOutbound(id, RESERVED);
+                    return;
+                }
+                if (prepared.statusCode() != 200) {
+                    recordAttempt(id);
+                    return;
+                }
+                transfer = transition(id, RESERVED, COMMITTING);
+            }
+            if (COMMITTING.equals(transfer.getState())) {
+                HttpResponse<String> committed = shardRouter.postInternal(transfer.getPeerNode(),
+                        "/internal/shard/transfers/" + id + "/commit", Map.of());
+                if (committed.statusCode() == 200) {
+                    completeOutbound(id);
+                } else if (committed.statusCode() == 409 || committed.statusCode() == 404) {
+                    // The participant will never credit; undo the debit even though we decided to commit
+                    abortOutbound(id, COMMITTING);
+                } else {
+                    recordAttempt(id);
+                }
+            }
+        } catch (IOException | OptimisticLockingFailureException e) {
+            log.debug("Transfer {} not advanced, will retry: {}", id, e.getMessage());
+            recordAttempt(id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sharding.recovery-interval-ms:5000}")
+    public void recover() {
+        if (!shardRouter.isEnabled()) {
+            return;
+        }
+        LocalDateTime stale = LocalDateTime.now().minusNanos(properties.getRecoveryAgeMs() * 1_000_000L);
+        LocalDateTime expired = LocalDateTime.now().minusNanos(properties.getPrepareTimeoutMs() * 1_000_000L);
+
+        // Each transfer is isolated, so one row that keeps failing does not hold up the rest
+        for (ShardTransfer transfer : shardTransferRepository.findByDirectionAndStateInAndUpdatedAtBefore(
+                OUTBOUND, List.of(RESERVED, COMMITTING), stale)) {
+            try {
+                if (RESERVED.equals(transfer.getState()) && transfer.getCreatedAt().isBefore(expired)) {
+                    giveUp(transfer);
+                } else {
+                    drive(transfer.getId());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Recovery of outbound transfer {} failed, will retry: {}", transfer.getId(), e.getMessage());
+            }
+        }
+        for (ShardTransfer transfer : shardTransferRepository.findByDirectionAndStateInAndUpdatedAtBefore(
+                INBOUND, List.of(PREPARED), stale)) {
+            try {
+                resolveInDoubt(transfer);
+            } catch (RuntimeException e) {
+                log.warn("Recovery of inbound transfer {} failed, will retry: {}", transfer.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // Participant side
+
+    public HttpStatus prepare(ShardTransferRequest request) {
+        return transactionTemplate.execute(status -> {
+            ShardTransfer existing = shardTransferRepository.findById(request.getTransferId()).orElse(null);
+            if (existing != null) {
+                return ABORTED.equals(existing.getState()) ? HttpStatus.CONFLICT : HttpStatus.OK;
+            }
+            if (!shardRouter.isLocal(request.getReceiverUserId()) || !userRepository.existsById(request.getReceiverUserId())) {
+                return HttpStatus.NOT_FOUND;
+            }
+            ShardTransfer transfer = new ShardTransfer();
+            transfer.setId(request.getTransferId());
+            transfer.setDirection(INBOUND);
+            transfer.setState(PREPARED);
+            transfer.setSenderUserId(request.getSenderUserId());
+            transfer.setReceiverUserId(request.getReceiverUserId());
+            transfer.setReceiverCellNumber(request.getReceiverCellNumber());
+            transfer.setAmount(request.getAmount());
+            transfer.setPeerNode(request.getCoordinatorNode());
+            shardTransferRepository.save(transfer);
+            return HttpStatus.OK;
+        });
+    }
+
+    public HttpStatus commit(String id) {
+        return transactionTemplate.execute(status -> {
+            ShardTransfer transfer = shardTransferRepository.findById(id).orElse(null);
+            if (transfer == null) {
+                return HttpStatus.NOT_FOUND;
+            }
+            if (COMMITTED.equals(transfer.getState())) {
+                return HttpStatus.OK;
+            }
+            if (ABORTED.equals(transfer.getState())) {
+                return HttpStatus.CONFLICT;
+            }
+            if (hotAccountService.credit(transfer.getReceiverUserId(), transfer.getAmount()) == 0) {
+                // Receiver deleted since prepare; refuse so the coordinator refunds the sender
+                log.warn("Transfer {} aborted on commit: receiver {} no longer exists", id, transfer.getReceiverUserId());
+                transfer.setState(ABORTED);
+                transfer.setUpdatedAt(LocalDateTime.now());
+                shardTransferRepository.save(transfer);
+                return HttpStatus.CONFLICT;
+            }
+            balanceService.evictAfterCommit(transfer.getReceiverUserId());
+
+            // Local record of the credit so the receiver's history and reconciliation see it;
+            // fees were charged and recorded on the sender's node
+            Transaction credit = new Transaction();
+            credit.setSenderUserId(transfer.getSenderUserId());
+            credit.setReceiverCellNumber(transfer.getReceiverCellNumber());
+            credit.setReceiverUserId(transfer.getReceiverUserId());
+            credit.setAmount(transfer.getAmount());
+            credit.setCommissionAmount(BigDecimal.ZERO);
+            credit.setVatAmount(BigDecimal.ZERO);
+            credit.setTransactionType("SHARD_CREDIT");
+            credit.setStatus("COMPLETED");
+            credit.setCreatedAt(LocalDateTime.now());
+            credit.setUpdatedAt(credit.getCreatedAt());
+            transfer.setTransactionId(transactionRepository.save(credit).getId());
+            notificationOutbox.enqueue(transfer.getReceiverUserId(), transfer.getReceiverCellNumber(), "TRANSFER_RECEIVED",
+                    "You received " + NotificationOutbox.money(transfer.getAmount()) + ".");
+
+            transfer.setState(COMMITTED);
+            transfer.setUpdatedAt(LocalDateTime.now());
+            shardTransferRepository.save(transfer);
+            return HttpStatus.OK;
+        });
+    }
+
+    public HttpStatus abort(String id) {
+        return transactionTemplate.execute(status -> {
+            ShardTransfer transfer = shardTransferRepository.findById(id).orElse(null);
+            if (transfer == null) {
+                // Tombstone, so a prepare that arrives late is refused
+                transfer = new ShardTransfer();
+                transfer.setId(id);
+                transfer.setDirection(INBOUND);
+                transfer.setSenderUserId("");
+                transfer.setReceiverUserId("");
+                transfer.setReceiverCellNumber("");
+                transfer.setAmount(BigDecimal.ZERO);
+            } else if (COMMITTED.equals(transfer.getState())) {
+                return HttpStatus.CONFLICT;
+            }
+            transfer.setState(ABORTED);
+            transfer.setUpdatedAt(LocalDateTime.now());
+            shardTransferRepository.save(transfer);
+            return HttpStatus.OK;
+        });
+    }
+
+    public String stateOf(String id) {
+        return shardTransferRepository.findById(id).map(ShardTransfer::getState).orElse(null);
+    }
+
+    // Coordinator side helpers
+
+    private void giveUp(ShardTransfer transfer) {
+        try {
+            HttpResponse<String> aborted = shardRouter.postInternal(transfer.getPeerNode(),
+                    "/internal/shard/transfers/" + transfer.getId() + "/abort", Map.of());
+            if (aborted.statusCode() == 200) {
+                abortOutbound(transfer.getId(), RESERVED);
+            } else if (aborted.statusCode() == 409) {
+                log.error("Transfer {} committed on node {} while still RESERVED locally",
+                        transfer.getId(), transfer.getPeerNode());
+            }
+        } catch (IOException e) {
+            // Participant unreachable; it only credits on commit, which we will never send
+            abortOutbound(transfer.getId(), RESERVED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void resolveInDoubt(ShardTransfer transfer) {
+        try {
+            HttpResponse<String> decision = shardRouter.getInternal(transfer.getPeerNode(),
+                    "/internal/shard/transfers/" + transfer.getId());
+            if (decision.statusCode() == 404 || decision.body().contains(ABORTED)) {
+                abort(transfer.getId());
+            } else if (decision.body().contains(COMMITTING) || decision.body().contains(COMMITTED)) {
+                commit(transfer.getId());
+            }
+        } catch (IOException e) {
+            log.debug("Coordinator for transfer {} unreachable", transfer.getId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ShardTransfer transition(String id, String from, String to) {
+        return transactionTemplate.execute(status -> {
+            ShardTransfer transfer = shardTransferRepository.findById(id).orElseThrow();
+            if (!from.equals(transfer.getState())) {
+                return transfer;
+            }
+            transfer.setState(to);
+            transfer.setUpdatedAt(LocalDateTime.now());
+            return shardTransferRepository.save(transfer);
+        });
+    }
+
+    // The outbound transaction is written just before its transfer is reserved, so this bound
+    // always covers it while keeping the lookup to the current month's partition or two
+    private static LocalDateTime transactionSince(ShardTransfer transfer) {
+        return transfer.getCreatedAt().minusHours(1);
+    }
+
+    private void completeOutbound(String id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ShardTransfer transfer = shardTransferRepository.findById(id).orElseThrow();
+            if (!COMMITTING.equals(transfer.getState())) {
+                return;
+            }
+            transactionRepository.findRecent(transfer.getTransactionId(), transactionSince(transfer)).ifPresent(transaction ->
+                    transactionRepository.updateStatus(transaction.getId(), transaction.getCreatedAt(), "PENDING", "COMPLETED",
+                            LocalDateTime.now()));
+            transfer.setState(COMMITTED);
+            transfer.setUpdatedAt(LocalDateTime.now());
+            shardTransferRepository.save(transfer);
+        });
+    }
+
+    // Refunds the sender, provided the transfer is still in the state the caller observed
+    private void abortOutbound(String id, String from) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ShardTransfer transfer = shardTransferRepository.findById(id).orElseThrow();
+            if (!from.equals(transfer.getState())) {
+                return;
+            }
+            hotAccountService.credit(transfer.getSenderUserId(), transfer.getTotalDeduction());
+            balanceService.evictAfterCommit(transfer.getSenderUserId());
+            transactionRepository.findRecent(transfer.getTransactionId(), transactionSince(transfer)).ifPresent(original -> {
+                transactionRepository.updateStatus(original.getId(), original.getCreatedAt(), original.getStatus(), "FAILED",
+                        LocalDateTime.now());
+
+                // The refund is its own ledger entry so reconciliation still balances
+                Transaction reversal = new Transaction();
+                reversal.setSenderUserId(original.getSenderUserId());
+                reversal.setReceiverCellNumber(original.getReceiverCellNumber());
+                reversal.setAmount(original.getAmount());
+                reversal.setCommissionAmount(original.getCommissionAmount());
+                reversal.setVatAmount(original.getVatAmount());
+                reversal.setTransactionType("REVERSAL");
+                reversal.setStatus("COMPLETED");
+                reversal.setCreatedAt(LocalDateTime.now());
+                reversal.setUpdatedAt(reversal.getCreatedAt());
+                transactionRepository.save(reversal);
+            });
+            userRepository.findById(transfer.getSenderUserId()).ifPresent(sender ->
+                    notificationOutbox.enqueue(sender.getId(), sender.getCellNumber(), "TRANSFER_REVERSED",
+                            "Your transfer of " + NotificationOutbox.money(transfer.getAmount()) + " to "
+                                    + transfer.getReceiverCellNumber() + " failed and "
+                                    + NotificationOutbox.money(transfer.getTotalDeduction()) + " was refunded."));
+            transfer.setState(ABORTED);
+            transfer.setUpdatedAt(LocalDateTime.now());
+            shardTransferRepository.save(transfer);
+        });
+    }
+
+    private void recordAttempt(String id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> shardTransferRepository.findById(id).ifPresent(transfer -> {
+                transfer.setAttempts(transfer.getAttempts() + 1);
+                transfer.setUpdatedAt(LocalDateTime.now());
+                shardTransferRepository.save(transfer);
+            }));
+        } catch (OptimisticLockingFailureException e) {
+            // Someone else advanced it
+        }
+    }
+
+    private ShardTransferRequest toRequest(ShardTransfer transfer) {
+        ShardTransferRequest request = new ShardTransferRequest();
+        request.setTransferId(transfer.getId());
+        request.setSenderUserId(transfer.getSenderUserId());
+        request.setReceiverUserId(transfer.getReceiverUserId());
+        request.setReceiverCellNumber(transfer.getReceiverCellNumber());
+        request.setAmount(transfer.getAmount());
+        request.setCoordinatorNode(shardRouter.localNode());
+        return request;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "sharding")
+@Data
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    // Index of this instance in nodes
+    private int nodeId = 0;
+    // Base URLs of every node, in node id order; identical on all nodes
+    private List<String> nodes = new ArrayList<>();
+    private int virtualNodes = 128;
+    // Shared secret required on /internal/shard/** calls between nodes
+    private String internalSecret = "";
+    private long requestTimeoutMs = 3000;
+    // In-doubt transfers older than this are picked up by recovery
+    private long recoveryAgeMs = 10000;
+    // A reservation that could not be prepared for this long is aborted
+    private long prepareTimeoutMs = 60000;
+}
@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ring of time buckets updated with atomics only. A write that races a bucket
+// rotation can be dropped, which is acceptable for velocity heuristics.
+public class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final AtomicLongArray slots;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray amounts;
+
+    public SlidingWindowCounter(long windowMillis, int buckets) {
+        this.bucketMillis = windowMillis / buckets;
+        this.buckets = buckets;
+        this.slots = new AtomicLongArray(buckets);
+        this.counts = new AtomicLongArray(buckets);
+        this.amounts = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            slots.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    public void add(long timestampMillis, long count, long amountCents) {
+        long slot = timestampMillis / bucketMillis;
+        int i = (int) (slot % buckets);
+        long current = slots.get(i);
+        if (current != slot) {
+            if (current > slot) {
+                return; // older than the window, bucket already reused
+            }
+            if (slots.compareAndSet(i, current, slot)) {
+                counts.set(i, 0);
+                amounts.set(i, 0);
+            }
+        }
+        counts.addAndGet(i, count);
+        amounts.addAndGet(i, amountCents);
+    }
+
+    public long count(long nowMillis) {
+        return sum(nowMillis, counts);
+    }
+
+    public long amountCents(long nowMillis) {
+        return sum(nowMillis, amounts);
+    }
+
+    private long sum(long nowMillis, AtomicLongArray values) {
+        long now = nowMillis / bucketMillis;
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long slot = slots.get(i);
+            if (slot > now - buckets && slot <= now) {
+                total += values.get(i);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "standing_orders", indexes = {
+        @Index(name = "idx_standing_orders_status_next_run", columnList = "status, nextRunAt, id"),
+        @Index(name = "idx_standing_orders_sender", columnList = "senderUserId")
+})
+@Data
+public class StandingOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+    // Guards against the same occurrence being executed twice
+    @Version
+    private long version;
+    @Column(nullable = false)
+    private String senderUserId;
+    // Email or cell number, resolved through the receiver directory at execution time
+    @Column(nullable = false)
+    private String receiverAddress;
+    @Column(nullable = false)
+    private BigDecimal amount;
+    // ONCE, DAILY, WEEKLY or MONTHLY
+    @Column(nullable = false)
+    private String frequency;
+    // Preferred day for MONTHLY orders, clamped to the length of short months
+    private int dayOfMonth;
+    // Nominal time of the current occurrence; retries move nextRunAt but not this
+    @Column(nullable = false)
+    private LocalDateTime anchorAt;
+    @Column(nullable = false)
+    private LocalDateTime nextRunAt;
+    private LocalDateTime endAt;
+    // ACTIVE, PAUSED, CANCELLED or COMPLETED
+    @Column(nullable = false)
+    private String status = "ACTIVE";
+    @Column(nullable = false)
+    private int maxRetries;
+    @Column(nullable = false)
+    private int retryIntervalMinutes;
+    @Column(nullable = false)
+    private int failedAttempts;
+    @Column(nullable = false)
+    private long executions;
+    private LocalDateTime lastRunAt;
+    private String lastResult;
+    private String lastTransactionId;
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
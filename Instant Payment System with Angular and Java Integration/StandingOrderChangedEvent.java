@@ -0,0 +1,15 @@
+package com.example.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Published when an order's next run is set, so the scheduler can pick it up without waiting for its next load
+@Data
+@AllArgsConstructor
+public class StandingOrderChangedEvent {
+    private String orderId;
+    private String status;
+    private LocalDateTime nextRunAt;
+}
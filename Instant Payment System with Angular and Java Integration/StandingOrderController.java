@@ -0,0 +1,64 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.StandingOrderRequest;
+import com.example.demo.dto.StandingOrderResponse;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.StandingOrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/standing-orders")
+public class StandingOrderController {
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        return userRepository.findByEmail(username)
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
+    }
+
+    @PostMapping
+    public ResponseEntity<StandingOrderResponse> create(@RequestBody StandingOrderRequest request) {
+        return ResponseEntity.ok(StandingOrderResponse.from(standingOrderService.create(getCurrentUser(), request)));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<StandingOrderResponse>> list() {
+        return ResponseEntity.ok(standingOrderService.listForUser(getCurrentUser()).stream()
+                .map(StandingOrderResponse::from)
+                .toList());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StandingOrderResponse> get(@PathVariable String id) {
+        return ResponseEntity.ok(StandingOrderResponse.from(standingOrderService.getForUser(getCurrentUser(), id)));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<StandingOrderResponse> update(@PathVariable String id,
+                                                        @RequestParam(required = false) BigDecimal amount,
+                                                        @RequestParam(required = false) String status) {
+        return ResponseEntity.ok(StandingOrderResponse.from(standingOrderService.update(getCurrentUser(), id, amount, status)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable String id) {
+        standingOrderService.cancel(getCurrentUser(), id);
+        return ResponseEntity.noContent().build();
+    }
+}
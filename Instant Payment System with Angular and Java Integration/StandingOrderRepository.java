@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.StandingOrderSlot;
+import com.example.demo.model.StandingOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, String> {
+
+    List<StandingOrder> findBySenderUserIdOrderByCreatedAtDesc(String senderUserId);
+
+    // Keyset page over (nextRunAt, id), served by idx_standing_orders_status_next_run
+    @Query("SELECT o.id AS id, o.nextRunAt AS nextRunAt FROM StandingOrder o " +
+            "WHERE o.status = 'ACTIVE' AND o.nextRunAt < :until " +
+            "AND (o.nextRunAt > :afterRunAt OR (o.nextRunAt = :afterRunAt AND o.id > :afterId)) " +
+            "ORDER BY o.nextRunAt, o.id")
+    List<StandingOrderSlot> findActiveSlots(@Param("afterRunAt") LocalDateTime afterRunAt,
+                                            @Param("afterId") String afterId,
+                                            @Param("until") LocalDateTime until,
+                                            Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class StandingOrderRequest {
+    private String receiverEmail;
+    private String receiverCellNumber;
+    private BigDecimal amount;
+    private String frequency;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private Integer maxRetries;
+    private Integer retryIntervalMinutes;
+}
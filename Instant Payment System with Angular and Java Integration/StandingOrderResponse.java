@@ -0,0 +1,41 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.StandingOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record StandingOrderResponse(
+        String id,
+        String receiverAddress,
+        BigDecimal amount,
+        String frequency,
+        String status,
+        LocalDateTime nextRunAt,
+        LocalDateTime endAt,
+        int maxRetries,
+        int retryIntervalMinutes,
+        int failedAttempts,
+        long executions,
+        LocalDateTime lastRunAt,
+        String lastResult,
+        String lastTransactionId) {
+
+    public static StandingOrderResponse from(StandingOrder order) {
+        return new StandingOrderResponse(
+                order.getId(),
+                order.getReceiverAddress(),
+                order.getAmount(),
+                order.getFrequency(),
+                order.getStatus(),
+                order.getNextRunAt(),
+                order.getEndAt(),
+                order.getMaxRetries(),
+                order.getRetryIntervalMinutes(),
+                order.getFailedAttempts(),
+                order.getExecutions(),
+                order.getLastRunAt(),
+                order.getLastResult(),
+                order.getLastTransactionId());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.StandingOrderSlot;
+import com.example.demo.event.StandingOrderChangedEvent;
+import com.example.demo.repository.StandingOrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Keeps the next horizon of standing-order executions on a hierarchical timer wheel.
+// The table is never scanned: the wheel is filled by keyset pages of (nextRunAt, id) just
+// ahead of the current time, and orders changed inside the loaded horizon are added on
+// commit. Due entries are dispatched in batches to a bounded executor, so a month-end
+// minute with a large share of all orders firing at once queues instead of flooding the DB.
+@Service
+public class StandingOrderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(StandingOrderScheduler.class);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public record Due(String orderId, LocalDateTime runAt) {
+    }
+
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Autowired
+    @Qualifier("standingOrderExecutor")
+    private ThreadPoolTaskExecutor standingOrderExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${standing-orders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${standing-orders.horizon-minutes:60}")
+    private long horizonMinutes;
+
+    @Value("${standing-orders.load-page-size:5000}")
+    private int loadPageSize;
+
+    @Value("${standing-orders.batch-size:100}")
+    private int batchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // One-second ticks, 60 slots, 3 levels: 60 hours of capacity
+    private HierarchicalTimerWheel<Due> wheel;
+    // Entries on the wheel, so a refill and a change event for the same occurrence add it once
+    private final Set<Due> scheduled = new HashSet<>();
+    private volatile LocalDateTime loadedUntil = BEGINNING;
+    // Horizon of the refill in progress, published before its first page is read
+    private volatile LocalDateTime loadingUntil = BEGINNING;
+    private volatile int pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        HierarchicalTimerWheel<Due> created = new HierarchicalTimerWheel<>(1000, 60, 3, System.currentTimeMillis());
+        if (horizonMinutes * 60_000 > created.capacityMs()) {
+            throw new IllegalStateException("standing-orders.horizon-minutes exceeds the timer wheel capacity");
+        }
+        Gauge.builder("standing_orders.wheel.size", this, s -> s.pending).register(meterRegistry);
+        lock.lock();
+        try {
+            wheel = created;
+        } finally {
+            lock.unlock();
+        }
+        // Overdue orders from before the restart are included and fire on the first tick
+        refill(BEGINNING);
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        if (wheel == null) {
+            return;
+        }
+        List<Due> due = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advance(System.currentTimeMillis(), entry -> {
+                scheduled.remove(entry);
+                due.add(entry);
+            });
+            pending = wheel.size();
+        } finally {
+            lock.unlock();
+        }
+        dispatch(due);
+
+        LocalDateTime loaded = loadedUntil;
+        if (loaded.isBefore(LocalDateTime.now().plusMinutes(horizonMinutes / 2))) {
+            refill(loaded);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStandingOrderChanged(StandingOrderChangedEvent event) {
+        if (wheel == null || !"ACTIVE".equals(event.getStatus()) || !event.getNextRunAt().isBefore(loadingUntil)) {
+            return;
+        }
+        // Beyond loadingUntil the next refill will find it. Inside it, a running refill may
+        // already have paged past this order, so it is added here; the wheel ignores duplicates.
+        schedule(event.getOrderId(), event.getNextRunAt());
+    }
+
+    private void refill(LocalDateTime from) {
+        LocalDateTime until = LocalDateTime.now().plusMinutes(horizonMinutes);
+        // Changes committed from here on are scheduled by their events; earlier ones are visible
+        // to every page read below
+        loadingUntil = until;
+        LocalDateTime afterRunAt = from;
+        String afterId = "";
+        long loaded = 0;
+        List<StandingOrderSlot> page;
+        do {
+            page = standingOrderRepository.findActiveSlots(afterRunAt, afterId, until, PageRequest.of(0, loadPageSize));
+            for (StandingOrderSlot slot : page) {
+                schedule(slot.getId(), slot.getNextRunAt());
+            }
+            if (!page.isEmpty()) {
+                StandingOrderSlot last = page.get(page.size() - 1);
+                afterRunAt = last.getNextRunAt();
+                afterId = last.getId();
+                loaded += page.size();
+            }
+        } while (page.size() == loadPageSize);
+        loadedUntil = until;
+        if (loaded > 0) {
+            log.debug("Loaded {} standing order(s) due before {}", loaded, until);
+        }
+    }
+
+    private void schedule(String orderId, LocalDateTime runAt) {
+        long dueMs = runAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Due due = new Due(orderId, runAt);
+        lock.lock();
+        try {
+            if (scheduled.add(due) && !wheel.schedule(due, dueMs)) {
+                scheduled.remove(due);
+            }
+            pending = wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch(List<Due> due) {
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Due> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            // The executor runs full batches on this thread, which holds back the next tick
+            standingOrderExecutor.execute(() -> standingOrderService.executeBatch(batch));
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.StandingOrderRequest;
+import com.example.demo.event.StandingOrderChangedEvent;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.model.StandingOrder;
+import com.example.demo.model.Transaction;
+import com.example.demo.model.User;
+import com.example.demo.repository.StandingOrderRepository;
+import com.example.demo.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class StandingOrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(StandingOrderService.class);
+
+    private static final Set<String> FREQUENCIES = Set.of("ONCE", "DAILY", "WEEKLY", "MONTHLY");
+
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ReceiverDirectoryService receiverDirectoryService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Transactional
+    public StandingOrder create(User sender, StandingOrderRequest request) {
+        String receiverAddress = request.getReceiverCellNumber() != null ? request.getReceiverCellNumber() : request.getReceiverEmail();
+        if (receiverDirectoryService.resolve(receiverAddress).isEmpty()) {
+            throw ErrorCode.RECEIVER_NOT_FOUND.exception();
+        }
+        String frequency = request.getFrequency() == null ? "" : request.getFrequency().toUpperCase();
+        if (!FREQUENCIES.contains(frequency)) {
+            throw ErrorCode.INVALID_REQUEST.exception("Frequency must be one of " + FREQUENCIES);
+        }
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw ErrorCode.INVALID_REQUEST.exception("Amount must be positive");
+        }
+        LocalDateTime startAt = request.getStartAt() != null ? request.getStartAt() : LocalDateTime.now();
+        if (request.getEndAt() != null && request.getEndAt().isBefore(startAt)) {
+            throw ErrorCode.INVALID_REQUEST.exception("End date is before start date");
+        }
+
+        StandingOrder order = new StandingOrder();
+        order.setSenderUserId(sender.getId());
+        order.setReceiverAddress(receiverAddress.trim());
+        order.setAmount(request.getAmount());
+        order.setFrequency(frequency);
+        order.setDayOfMonth(startAt.getDayOfMonth());
+        order.setAnchorAt(startAt);
+        order.setNextRunAt(startAt);
+        order.setEndAt(request.getEndAt());
+        order.setMaxRetries(request.getMaxRetries() != null ? request.getMaxRetries() : 3);
+        order.setRetryIntervalMinutes(request.getRetryIntervalMinutes() != null ? request.getRetryIntervalMinutes() : 60);
+        return saveAndPublish(order);
+    }
+
+    public List<StandingOrder> listForUser(User user) {
+        return standingOrderRepository.findBySenderUserIdOrderByCreatedAtDesc(user.getId());
+    }
+
+    public StandingOrder getForUser(User user, String id) {
+        return standingOrderRepository.findById(id)
+                .filter(order -> order.getSenderUserId().equals(user.getId()))
+                .orElseThrow(() -> ErrorCode.STANDING_ORDER_NOT_FOUND.exception());
+    }
+
+    @Transactional
+    public StandingOrder update(User user, String id, BigDecimal amount, String status) {
+        StandingOrder order = getForUser(user, id);
+        if ("CANCELLED".equals(order.getStatus()) || "COMPLETED".equals(order.getStatus())) {
+            throw ErrorCode.INVALID_REQUEST.exception("Standing order is " + order.getStatus().toLowerCase());
+        }
+        if (amount != null) {
+            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+                throw ErrorCode.INVALID_REQUEST.exception("Amount must be positive");
+            }
+            order.setAmount(amount);
+        }
+        if (status != null) {
+            String target = status.toUpperCase();
+            if (!"ACTIVE".equals(target) && !"PAUSED".equals(target)) {
+                throw ErrorCode.INVALID_REQUEST.exception("Status must be ACTIVE or PAUSED");
+            }
+            if ("ACTIVE".equals(target) && "PAUSED".equals(order.getStatus())) {
+                // Occurrences missed while paused are skipped, not replayed
+                LocalDateTime now = LocalDateTime.now();
+                while (order.getAnchorAt().isBefore(now) && !"ONCE".equals(order.getFrequency())) {
+                    order.setAnchorAt(nextOccurrence(order, order.getAnchorAt()));
+                }
+                order.setNextRunAt(order.getAnchorAt());
+                order.setFailedAttempts(0);
+            }
+            order.setStatus(target);
+        }
+        return saveAndPublish(order);
+    }
+
+    @Transactional
+    public void cancel(User user, String id) {
+        StandingOrder order = getForUser(user, id);
+        order.setStatus("CANCELLED");
+        saveAndPublish(order);
+    }
+
+    // Runs one scheduler batch. Orders are loaded together, but each executes in its own
+    // transaction so one failure never rolls back another's transfer.
+    public void executeBatch(List<StandingOrderScheduler.Due> batch) {
+        Map<String, StandingOrder> orders = standingOrderRepository
+                .findAllById(batch.stream().map(StandingOrderScheduler.Due::orderId).toList())
+                .stream().collect(Collectors.toMap(StandingOrder::getId, Function.identity()));
+        for (StandingOrderScheduler.Due due : batch) {
+            StandingOrder order = orders.get(due.orderId());
+            // Stale wheel entries (cancelled, paused, edited or already run) are dropped here
+            if (order == null || !"ACTIVE".equals(order.getStatus()) || !order.getNextRunAt().equals(due.runAt())) {
+                count("stale");
+                continue;
+            }
+            execute(order, due.runAt());
+        }
+    }
+
+    private void execute(StandingOrder order, LocalDateTime runAt) {
+        UserDetails sender;
+        try {
+            String email = userRepository.findById(order.getSenderUserId()).map(User::getEmail).orElse(null);
+            sender = email == null ? null : userDetailsService.loadUserByUsername(email);
+        } catch (RuntimeException e) {
+            sender = null;
+        }
+        if (sender == null) {
+            recordFailure(order.getId(), "Sender account no longer exists", false);
+            return;
+        }
+
+        // sendMoney is secured for the account owner, so the transfer runs as the sender
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(sender, null, sender.getAuthorities()));
+        SecurityContextHolder.setContext(context);
+        try {
+            AtomicBoolean stale = new AtomicBoolean();
+            ErrorCode rejection = transactionTemplate.execute(status -> {
+                StandingOrder current = standingOrderRepository.findById(order.getId()).orElseThrow();
+                // The batch was checked against rows read before any of it ran; an earlier entry
+                // for this occurrence may have paid and advanced it since
+                if (!"ACTIVE".equals(current.getStatus()) || !current.getNextRunAt().equals(runAt)) {
+                    stale.set(true);
+                    return null;
+                }
+                // Locked and read fresh here; the debit reuses this managed copy
+                User user = userRepository.findByIdForUpdate(current.getSenderUserId()).orElseThrow();
+                Result<Transaction> result = transactionService.trySendMoney(user, current.getReceiverAddress(), current.getAmount());
+                if (result instanceof Result.Rejected<Transaction> rejected) {
+                    status.setRollbackOnly();
+                    return rejected.code();
+                }
+                Transaction transaction = ((Result.Ok<Transaction>) result).value();
+                current.setLastTransactionId(transaction.getId());
+                current.setLastResult(transaction.getStatus());
+                current.setExecutions(current.getExecutions() + 1);
+                current.setFailedAttempts(0);
+                current.setLastRunAt(LocalDateTime.now());
+                advance(current);
+                saveAndPublish(current);
+                return null;
+            });
+            if (stale.get()) {
+                count("stale");
+            } else if (rejection == null) {
+                count("executed");
+            } else {
+                recordFailure(order.getId(), rejection.name(), rejection == ErrorCode.INSUFFICIENT_FUNDS);
+            }
+        } catch (OptimisticLockingFailureException e) {
+            // Another worker ran this occurrence
+            count("stale");
+        } catch (RuntimeException e) {
+            recordFailure(order.getId(), e.getMessage(), false);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void recordFailure(String orderId, String reason, boolean retryable) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> standingOrderRepository.findById(orderId).ifPresent(order -> {
+                order.setLastRunAt(LocalDateTime.now());
+                order.setLastResult(reason);
+                if (!retryable) {
+                    // Receiver gone, risk block and similar need the owner's attention
+                    order.setStatus("PAUSED");
+                    count("paused");
+                } else if (order.getFailedAttempts() < order.getMaxRetries()) {
+                    order.setFailedAttempts(order.getFailedAttempts() + 1);
+                    order.setNextRunAt(LocalDateTime.now().plusMinutes(order.getRetryIntervalMinutes()));
+                    count("retry_scheduled");
+                } else {
+                    order.setFailedAttempts(0);
+                    order.setLastResult("Skipped: " + reason);
+                    advance(order);
+                    count("skipped");
+                }
+                saveAndPublish(order);
+            }));
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Standing order {} changed while recording a failure", orderId);
+        }
+    }
+
+    // Moves to the next nominal occurrence, or completes the order
+    private void advance(StandingOrder order) {
+        LocalDateTime next = nextOccurrence(order, order.getAnchorAt());
+        if (next == null || (order.getEndAt() != null && next.isAfter(order.getEndAt()))) {
+            order.setStatus("COMPLETED");
+            return;
+        }
+        order.setAnchorAt(next);
+        order.setNextRunAt(next);
+    }
+
+    static LocalDateTime nextOccurrence(StandingOrder order, LocalDateTime anchor) {
+        switch (order.getFrequency()) {
+            case "DAILY":
+                return anchor.plusDays(1);
+            case "WEEKLY":
+                return anchor.plusWeeks(1);
+            case "MONTHLY":
+                LocalDateTime next = anchor.plusMonths(1);
+                return next.withDayOfMonth(Math.min(order.getDayOfMonth(), next.toLocalDate().lengthOfMonth()));
+            default:
+                return null;
+        }
+    }
+
+    private StandingOrder saveAndPublish(StandingOrder order) {
+        order.setUpdatedAt(LocalDateTime.now());
+        StandingOrder saved = standingOrderRepository.save(order);
+        eventPublisher.publishEvent(new StandingOrderChangedEvent(saved.getId(), saved.getStatus(), saved.getNextRunAt()));
+        return saved;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("standing_orders.executions", "outcome", outcome).increment();
+    }
+}
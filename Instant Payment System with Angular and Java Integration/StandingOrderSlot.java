@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// The two columns the scheduler needs to place an order on the timer wheel
+public interface StandingOrderSlot {
+    String getId();
+    LocalDateTime getNextRunAt();
+}
@@ -0,0 +1,87 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.service.ReceiverDirectoryService;
+import com.example.demo.service.StatementStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+@RestController
+@RequestMapping("/api/statements")
+public class StatementController {
+
+    @Autowired
+    private StatementStore statementStore;
+
+    @Autowired
+    private ReceiverDirectoryService receiverDirectoryService;
+
+    // Below this Tomcat's own copy loop is cheaper than setting up sendfile
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    // Served from the pre-generated file. Clients accepting gzip get the stored bytes as-is:
+    // whole files via Tomcat sendfile (FileChannel.transferTo, no copy through the heap) and
+    // Range requests via a file Resource. Clients without gzip get it inflated.
+    @GetMapping("/{month}")
+    public ResponseEntity<Resource> download(@PathVariable String month,
+                                             @RequestParam(defaultValue = "csv") String format,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             HttpServletRequest request) throws IOException {
+        YearMonth period;
+        try {
+            period = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw ErrorCode.INVALID_REQUEST.exception("Month must be formatted as yyyy-MM");
+        }
+        if (!StatementStore.FORMATS.contains(format)) {
+            throw ErrorCode.INVALID_REQUEST.exception("Format must be one of " + StatementStore.FORMATS);
+        }
+        // Authentication and this lookup both hit the directory cache, so a download for a cached
+        // caller runs no query; a cache miss (first request, or after directory.cache.ttl-seconds)
+        // costs one indexed lookup by email
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        DirectoryEntry caller = receiverDirectoryService.resolve(email)
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
+        Optional<Path> file = statementStore.find(caller.getUserId(), period, format);
+        if (file.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType("csv".equals(format) ? new MediaType("text", "csv") : MediaType.TEXT_PLAIN)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + period + "." + format).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            long length = Files.size(file.get());
+            if (request.getHeader(HttpHeaders.RANGE) == null && length >= SENDFILE_MIN_BYTES
+                    && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+                request.setAttribute("org.apache.tomcat.sendfile.filename", file.get().toAbsolutePath().toString());
+                request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+                request.setAttribute("org.apache.tomcat.sendfile.end", length);
+                return response.contentLength(length).build();
+            }
+            return response.body(new FileSystemResource(file.get()));
+        }
+        return response.body(new InputStreamResource(new GZIPInputStream(Files.newInputStream(file.get()))));
+    }
+}
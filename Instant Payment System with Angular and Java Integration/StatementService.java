@@ -0,0 +1,219 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.model.Transaction;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Renders every user's statement for a closed month ahead of demand. Users are walked in
+// keyset pages; each page is one task on the statement executor and costs a single
+// transactions query for all of its users. At most max-in-flight-pages pages are queued or
+// rendering at once; the walk waits for a slot before reading the next page. Existing
+// statements are skipped, so an interrupted run resumes where it stopped.
+@Service
+public class StatementService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementService.class);
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StatementStore statementStore;
+
+    @Autowired
+    @Qualifier("statementExecutor")
+    private ThreadPoolTaskExecutor statementExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${statements.page-size:500}")
+    private int pageSize;
+
+    @Value("${statements.max-in-flight-pages:8}")
+    private int maxInFlightPages;
+
+    private final ReentrantLock running = new ReentrantLock();
+
+    // Shortly after midnight on the 1st, for the month that just closed
+    @Scheduled(cron = "${statements.cron:0 30 0 1 * *}")
+    public void generatePreviousMonth() {
+        generate(YearMonth.now().minusMonths(1));
+    }
+
+    // Returns the number of statements written, or -1 if a run is already in progress
+    public int generate(YearMonth month) {
+        if (!running.tryLock()) {
+            return -1;
+        }
+        try {
+            long start = System.nanoTime();
+            AtomicInteger written = new AtomicInteger();
+            Semaphore inFlight = new Semaphore(maxInFlightPages);
+            List<CompletableFuture<Void>> pages = new ArrayList<>();
+            String afterId = "";
+            List<DirectoryEntry> page;
+            do {
+                inFlight.acquireUninterruptibly();
+                page = userRepository.findDirectoryPage(afterId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    inFlight.release();
+                } else {
+                    List<DirectoryEntry> users = page;
+                    try {
+                        pages.add(CompletableFuture.runAsync(() -> written.addAndGet(renderPage(users, month)), statementExecutor)
+                                .whenComplete((ignored, error) -> inFlight.release()));
+                    } catch (RuntimeException e) {
+                        inFlight.release();
+                        throw e;
+                    }
+                    afterId = page.get(page.size() - 1).getUserId();
+                }
+            } while (page.size() == pageSize);
+            CompletableFuture.allOf(pages.toArray(new CompletableFuture[0])).join();
+
+            meterRegistry.timer("statements.generation").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.info("Generated {} statement(s) for {}", written.get(), month);
+            return written.get();
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private int renderPage(List<DirectoryEntry> page, YearMonth month) {
+        List<DirectoryEntry> pending = page.stream().filter(user -> !statementStore.exists(user.getUserId(), month)).toList();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<String, DirectoryEntry> byCell = new HashMap<>();
+        Map<String, List<Transaction>> activity = new HashMap<>();
+        for (DirectoryEntry user : pending) {
+            byCell.put(user.getCellNumber(), user);
+            activity.put(user.getUserId(), new ArrayList<>());
+        }
+        List<Transaction> transactions = transactionRepository.findForStatements(activity.keySet(), byCell.keySet(),
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        for (Transaction transaction : transactions) {
+            List<Transaction> sent = activity.get(transaction.getSenderUserId());
+            if (sent != null) {
+                sent.add(transaction);
+            }
+            // A number that changed hands since would credit the wrong user, so the cell is only
+            // consulted for older rows that carry no receiver id
+            String receiverId = transaction.getReceiverUserId();
+            if (receiverId == null) {
+                DirectoryEntry receiver = byCell.get(transaction.getReceiverCellNumber());
+                receiverId = receiver != null ? receiver.getUserId() : null;
+            }
+            List<Transaction> received = receiverId != null ? activity.get(receiverId) : null;
+            // Withdrawals name the sender as receiver too; list them once
+            if (received != null && !receiverId.equals(transaction.getSenderUserId())) {
+                received.add(transaction);
+            }
+        }
+
+        int written = 0;
+        for (DirectoryEntry user : pending) {
+            List<Line> lines = activity.get(user.getUserId()).stream().map(t -> Line.of(t, user.getUserId())).toList();
+            try {
+                statementStore.write(user.getUserId(), month, "csv", renderCsv(lines));
+                statementStore.write(user.getUserId(), month, "txt", renderText(user, month, lines));
+                written++;
+            } catch (IOException e) {
+                log.error("Could not write statement for {} {}: {}", user.getUserId(), month, e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    private static String renderCsv(List<Line> lines) {
+        StringBuilder out = new StringBuilder("date,type,reference,counterparty,amount,fees,status\n");
+        for (Line line : lines) {
+            out.append(TIMESTAMP.format(line.createdAt())).append(',')
+                    .append(line.type()).append(',')
+                    .append(line.reference()).append(',')
+                    .append(line.counterparty()).append(',')
+                    .append(line.amount().toPlainString()).append(',')
+                    .append(line.fees().toPlainString()).append(',')
+                    .append(line.status()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String renderText(DirectoryEntry user, YearMonth month, List<Line> lines) {
+        BigDecimal moneyIn = BigDecimal.ZERO;
+        BigDecimal moneyOut = BigDecimal.ZERO;
+        BigDecimal fees = BigDecimal.ZERO;
+        StringBuilder body = new StringBuilder();
+        for (Line line : lines) {
+            if (line.amount().signum() >= 0) {
+                moneyIn = moneyIn.add(line.amount());
+            } else {
+                moneyOut = moneyOut.add(line.amount().negate());
+            }
+            fees = fees.add(line.fees());
+            body.append(String.format("%-19s  %-18s  %-14s  %12s  %9s  %s%n",
+                    TIMESTAMP.format(line.createdAt()), line.type(), line.counterparty(),
+                    line.amount().toPlainString(), line.fees().toPlainString(), line.status()));
+        }
+        StringBuilder out = new StringBuilder();
+        out.append("Instant Payment System - Statement for ").append(month).append('\n');
+        out.append(user.getDisplayName()).append("  ").append(user.getCellNumber()).append("  ").append(user.getEmail()).append("\n\n");
+        out.append(String.format("%-19s  %-18s  %-14s  %12s  %9s  %s%n", "Date", "Type", "Counterparty", "Amount", "Fees", "Status"));
+        out.append(body);
+        out.append('\n');
+        out.append(String.format("Money in:  %12s%n", moneyIn.toPlainString()));
+        out.append(String.format("Money out: %12s%n", moneyOut.toPlainString()));
+        out.append(String.format("Fees:      %12s%n", fees.toPlainString()));
+        out.append(String.format("Entries:   %12d%n", lines.size()));
+        return out.toString();
+    }
+
+    // One statement row, signed from the account holder's point of view
+    private record Line(LocalDateTime createdAt, String type, String reference, String counterparty,
+                        BigDecimal amount, BigDecimal fees, String status) {
+
+        static Line of(Transaction t, String userId) {
+            BigDecimal amount = t.getAmount() == null ? BigDecimal.ZERO : t.getAmount();
+            BigDecimal fees = (t.getCommissionAmount() == null ? BigDecimal.ZERO : t.getCommissionAmount())
+                    .add(t.getVatAmount() == null ? BigDecimal.ZERO : t.getVatAmount());
+            boolean outgoing = userId.equals(t.getSenderUserId());
+            boolean refund = "REVERSAL".equals(t.getTransactionType());
+            BigDecimal signed = outgoing && !refund ? amount.negate() : amount;
+            BigDecimal signedFees = !outgoing ? BigDecimal.ZERO : refund ? fees.negate() : fees;
+            String counterparty = outgoing ? t.getReceiverCellNumber() : "incoming";
+            String reference = t.getVoucherNumber() != null ? t.getVoucherNumber() : t.getId();
+            return new Line(t.getCreatedAt(), t.getTransactionType(), reference, counterparty, signed, signedFees, t.getStatus());
+        }
+    }
+}
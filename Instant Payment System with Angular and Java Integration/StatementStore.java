@@ -0,0 +1,57 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+// Gzipped statements on local disk at <dir>/<yyyy-MM>/<userId>.<format>.gz. The path is
+// the index, so finding a statement is one stat call and never touches the database.
+@Component
+public class StatementStore {
+
+    public static final Set<String> FORMATS = Set.of("csv", "txt");
+
+    @Value("${statements.dir:build/statements}")
+    private Path root;
+
+    public Optional<Path> find(String userId, YearMonth month, String format) {
+        Path file = pathFor(userId, month, format);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    public boolean exists(String userId, YearMonth month) {
+        return FORMATS.stream().allMatch(format -> Files.isRegularFile(pathFor(userId, month, format)));
+    }
+
+    // Written to a temp file and moved into place, so a download never sees half a statement
+    public void write(String userId, YearMonth month, String format, String content) throws IOException {
+        Path target = pathFor(userId, month, format);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), userId, ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 8192)) {
+                out.write(content.getBytes(StandardCharsets.UTF_8));
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path pathFor(String userId, YearMonth month, String format) {
+        if (!FORMATS.contains(format) || userId.contains("/") || userId.contains("..")) {
+            throw new IllegalArgumentException("Invalid statement reference");
+        }
+        return root.resolve(month.toString()).resolve(userId + "." + format + ".gz");
+    }
+}
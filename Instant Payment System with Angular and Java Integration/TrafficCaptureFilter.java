@@ -0,0 +1,47 @@
+package com.example.demo.config;
+
+import com.example.demo.service.TrafficCaptureService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+
+// Outermost filter, so the recorded duration covers everything the server did for the request
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private TrafficCaptureService captureService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !captureService.captures(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        // Bodies are cached as the controller reads them, up to the limit; nothing is read twice
+        ContentCachingRequestWrapper wrapped = new ContentCachingRequestWrapper(request, captureService.maxBodyBytes());
+        try {
+            filterChain.doFilter(wrapped, response);
+        } finally {
+            String authHeader = request.getHeader("Authorization");
+            String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+            byte[] body = wrapped.getContentAsByteArray();
+            captureService.record(new TrafficCaptureService.Pending(start, System.nanoTime() - start, response.getStatus(),
+                    request.getMethod(), request.getRequestURI(), token, new LinkedHashMap<>(wrapped.getParameterMap()),
+                    body.length > 0 ? body : null));
+        }
+    }
+}
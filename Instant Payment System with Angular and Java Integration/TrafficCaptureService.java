@@ -0,0 +1,351 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CaptureProperties;
+import com.example.demo.dto.CaptureSummary;
+import com.example.demo.dto.CapturedRequest;
+import com.example.demo.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Records sanitized request streams for the replayer. Request threads only hand a completed
+// request to a bounded queue; token decoding, redaction, encoding and file I/O all happen on
+// one background writer, which also rotates files and snapshots the database for each one.
+@Service
+public class TrafficCaptureService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficCaptureService.class);
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String REDACTED = "***";
+    private static final int BATCH = 1000;
+
+    @Autowired
+    private CaptureProperties properties;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // What the filter hands over; the raw token never leaves the writer thread
+    public record Pending(long arrivalNanos, long durationNanos, int status, String method, String path,
+                          String bearerToken, Map<String, String[]> parameters, byte[] body) {
+    }
+
+    private BlockingQueue<Pending> queue;
+    private Set<String> redactFields;
+    private Set<String> pseudonymizeFields;
+    private String pseudonymKey;
+    private Counter captured;
+    private Counter dropped;
+    private Counter beforeSnapshot;
+    private Thread writerThread;
+    private volatile boolean running;
+    // Queue overflows since the current file was opened; the writer takes them at close
+    private final AtomicLong droppedForFile = new AtomicLong();
+
+    private CaptureFile.Writer writer;
+    private Path filePath;
+    private String fileSnapshot;
+    private long fileStartMillis;
+    private long fileBaseNanos;
+    private long rotateAtNanos;
+    private long writtenToFile;
+    private long beforeSnapshotForFile;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Files.createDirectories(Path.of(properties.getDir()));
+        queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        redactFields = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        redactFields.addAll(properties.getRedactFields());
+        pseudonymizeFields = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        pseudonymizeFields.addAll(properties.getPseudonymizeFields());
+        pseudonymKey = properties.getPseudonymKey();
+        if (pseudonymKey == null || pseudonymKey.isBlank()) {
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            pseudonymKey = HexFormat.of().formatHex(key);
+        }
+        captured = meterRegistry.counter("capture.requests", "outcome", "written");
+        dropped = meterRegistry.counter("capture.requests", "outcome", "dropped");
+        beforeSnapshot = meterRegistry.counter("capture.requests", "outcome", "before_snapshot");
+        running = true;
+        writerThread = new Thread(this::writeLoop, "traffic-capture");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Capturing {} to {}", properties.getPaths(), properties.getDir());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean captures(String uri) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        for (String prefix : properties.getPaths()) {
+            if (uri.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int maxBodyBytes() {
+        return properties.getMaxBodyBytes();
+    }
+
+    public void record(Pending request) {
+        if (!queue.offer(request)) {
+            dropped.increment();
+            droppedForFile.incrementAndGet();
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                if (writer == null || System.nanoTime() >= rotateAtNanos) {
+                    rotate(batch);
+                }
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH - 1);
+                writeBatch(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Traffic capture stopped", e);
+        } finally {
+            closeWriter();
+        }
+    }
+
+    // A request that arrived before the snapshot started may or may not be reflected in it,
+    // so it is counted and left out rather than replayed on top of a state that already has it
+    private void writeBatch(List<Pending> batch) throws IOException {
+        int written = 0;
+        for (Pending pending : batch) {
+            if (pending.arrivalNanos() < fileBaseNanos) {
+                beforeSnapshotForFile++;
+                beforeSnapshot.increment();
+                continue;
+            }
+            writer.write(sanitize(pending));
+            written++;
+        }
+        writer.flush();
+        writtenToFile += written;
+        captured.increment(written);
+        batch.clear();
+    }
+
+    private void rotate(List<Pending> batch) throws IOException {
+        if (writer != null) {
+            // Everything completed so far belongs with the previous snapshot
+            queue.drainTo(batch);
+            writeBatch(batch);
+            closeWriter();
+        }
+        String stamp = LocalDateTime.now().format(FILE_STAMP);
+        // The boundary is taken before the snapshot starts: only requests arriving after it are
+        // certain to be missing from the snapshot, and offsets in the file count from it
+        fileBaseNanos = System.nanoTime();
+        fileStartMillis = System.currentTimeMillis();
+        fileSnapshot = properties.isSnapshot() ? snapshot(stamp) : null;
+        filePath = Path.of(properties.getDir(), "capture-" + stamp + CaptureFile.EXTENSION);
+        rotateAtNanos = fileBaseNanos + TimeUnit.MINUTES.toNanos(properties.getRotateMinutes());
+        writtenToFile = 0;
+        beforeSnapshotForFile = 0;
+        droppedForFile.set(0);
+        writer = new CaptureFile.Writer(filePath, fileStartMillis, fileSnapshot);
+        log.info("Capturing to {}", filePath);
+    }
+
+    // H2 only; for other databases take the snapshot with the database's own tools. The live
+    // database is scripted into a private in-memory copy, personal columns are rewritten there,
+    // and only the rewritten copy is written to disk.
+    private String snapshot(String stamp) {
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            if (!"H2".equals(product)) {
+                log.warn("Capture snapshots need H2, not {}; replays must start from an external snapshot", product);
+                return null;
+            }
+            String name = "snapshot-" + stamp + ".sql.gz";
+            Path target = Path.of(properties.getDir(), name).toAbsolutePath();
+            try (Connection copy = DriverManager.getConnection("jdbc:h2:mem:capture-snapshot-" + stamp, "sa", "");
+                 Statement statement = copy.createStatement()) {
+                jdbcTemplate.query("SCRIPT", (RowCallbackHandler) rs -> statement.execute(rs.getString(1)));
+                pseudonymize(copy, statement);
+                statement.execute("SCRIPT TO '" + target.toString().replace("'", "''") + "' COMPRESSION GZIP");
+            }
+            return name;
+        } catch (DataAccessException | SQLException e) {
+            log.error("Database snapshot for capture failed", e);
+            return null;
+        }
+    }
+
+    private void pseudonymize(Connection copy, Statement statement) throws SQLException {
+        statement.execute("CREATE ALIAS CAPTURE_PSEUDONYM FOR \"" + CapturePseudonyms.class.getName() + ".pseudonym\"");
+        for (String column : properties.getSnapshotPseudonymizeColumns()) {
+            int dot = column.indexOf('.');
+            String table = column.substring(0, dot);
+            String name = column.substring(dot + 1);
+            try (ResultSet existing = copy.getMetaData().getColumns(null, null, table.toUpperCase(), name.toUpperCase())) {
+                if (!existing.next()) {
+                    continue;
+                }
+            }
+            try (PreparedStatement update = copy.prepareStatement(
+                    "UPDATE " + table + " SET " + name + " = CAPTURE_PSEUDONYM(?, " + name + ")")) {
+                update.setString(1, pseudonymKey);
+                update.executeUpdate();
+            }
+        }
+        statement.execute("DROP ALIAS CAPTURE_PSEUDONYM");
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Closing capture file failed", e);
+        }
+        writer = null;
+        writeSummary();
+    }
+
+    // Sidecar the replayer reads to tell a complete capture from one with gaps
+    private void writeSummary() {
+        CaptureSummary summary = new CaptureSummary(filePath.getFileName().toString(), fileSnapshot, fileStartMillis,
+                writtenToFile, droppedForFile.getAndSet(0), beforeSnapshotForFile);
+        try {
+            objectMapper.writeValue(CaptureSummary.pathFor(filePath).toFile(), summary);
+        } catch (IOException e) {
+            log.warn("Writing capture summary for {} failed", filePath, e);
+        }
+        if (summary.droppedQueueFull() > 0 || summary.droppedBeforeSnapshot() > 0) {
+            log.warn("{}: {} requests written, {} dropped on a full queue, {} arrived before the snapshot",
+                    summary.file(), summary.written(), summary.droppedQueueFull(), summary.droppedBeforeSnapshot());
+        }
+    }
+
+    private CapturedRequest sanitize(Pending pending) {
+        List<CapturedRequest.Parameter> parameters = new ArrayList<>();
+        pending.parameters().forEach((name, values) -> {
+            for (String value : values) {
+                parameters.add(new CapturedRequest.Parameter(name, redactFields.contains(name) ? REDACTED
+                        : pseudonymizeFields.contains(name) ? CapturePseudonyms.pseudonym(pseudonymKey, value) : value));
+            }
+        });
+        return new CapturedRequest(pending.arrivalNanos() - fileBaseNanos, pending.durationNanos(), pending.status(),
+                pending.method(), pending.path(), userId(pending.bearerToken()), parameters, body(pending.body()));
+    }
+
+    private String userId(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            return jwtUtil.extractUserId(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Only JSON bodies are kept, re-serialized compactly with sensitive fields replaced or pseudonymized
+    private String body(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode tree = objectMapper.readTree(new String(body, StandardCharsets.UTF_8));
+            redact(tree);
+            return objectMapper.writeValueAsString(tree);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void redact(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            List<String> names = new ArrayList<>();
+            object.fieldNames().forEachRemaining(names::add);
+            for (String name : names) {
+                if (redactFields.contains(name)) {
+                    object.put(name, REDACTED);
+                } else if (pseudonymizeFields.contains(name) && object.get(name).isTextual()) {
+                    object.put(name, CapturePseudonyms.pseudonym(pseudonymKey, object.get(name).asText()));
+                } else {
+                    redact(object.get(name));
+                }
+            }
+        } else if (node != null && node.isArray()) {
+            node.forEach(this::redact);
+        }
+    }
+}
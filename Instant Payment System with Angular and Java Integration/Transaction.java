@@ -6,7 +6,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_sender_created", columnList = "senderUserId, createdAt"),
+        @Index(name = "idx_transactions_receiver_created", columnList = "receiverCellNumber, createdAt"),
+        @Index(name = "idx_transactions_created_id", columnList = "createdAt, id")
+})
 @Data
 public class Transaction {
     @Id
@@ -16,6 +20,9 @@ public class Transaction {
     private String senderUserId;
     @Column(nullable = false)
     private String receiverCellNumber;
+    // The local account credited, fixed when the row is written; null for withdrawals, reversals
+    // and sends whose receiver lives on another node
+    private String receiverUserId;
     @Column(nullable = false)
     private String transactionType;
     @Column(nullable = false)
@@ -29,6 +36,8 @@ public class Transaction {
     private String status;
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
+    // Moves on every status change so history ETags see settled and failed transfers
+    private LocalDateTime updatedAt;
     private String receiverName;
     private String receiverSurname;
     private String receiverIdPassport;
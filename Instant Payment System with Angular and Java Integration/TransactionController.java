@@ -1,18 +1,24 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.HistoryStamp;
+import com.example.demo.dto.TransactionResponse;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.exception.GlobalExceptionHandler;
 import com.example.demo.model.Transaction;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.PaymentMetrics;
+import com.example.demo.service.Result;
 import com.example.demo.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -24,39 +30,69 @@ public class TransactionController {
     @Autowired
     private UserRepository userRepository;
 
-    private User getCurrentUser() {
+    @Autowired
+    private PaymentMetrics metrics;
+
+    private User getCurrentUser(String operation) {
+        long start = metrics.start();
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userRepository.findByEmail(username)
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
+        metrics.stage(operation, "current_user", start);
+        return user;
     }
 
     @PostMapping("/send")
-    public ResponseEntity<Transaction> sendMoney(@RequestParam String receiverEmail, @RequestParam BigDecimal amount) {
-        User sender = getCurrentUser();
-        Transaction transaction = transactionService.sendMoney(sender, receiverEmail, amount);
-        return ResponseEntity.ok(transaction);
+    public ResponseEntity<?> sendMoney(@RequestParam(required = false) String receiverEmail,
+                                       @RequestParam(required = false) String receiverCellNumber,
+                                       @RequestParam BigDecimal amount) {
+        User sender = getCurrentUser("send");
+        String receiver = receiverCellNumber != null ? receiverCellNumber : receiverEmail;
+        // Includes the @PreAuthorize check and transaction begin/commit around the service body
+        long start = metrics.start();
+        Result<Transaction> result = transactionService.trySendMoney(sender, receiver, amount);
+        metrics.stage("send", "service_call", start);
+        return respond(result);
     }
 
     @PostMapping("/withdraw/full")
-    public ResponseEntity<Transaction> fullWithdrawal(@RequestParam BigDecimal amount) {
-        User user = getCurrentUser();
-        Transaction transaction = transactionService.fullWithdrawal(user, amount);
-        return ResponseEntity.ok(transaction);
+    public ResponseEntity<?> fullWithdrawal(@RequestParam BigDecimal amount) {
+        User user = getCurrentUser("withdraw");
+        long start = metrics.start();
+        Result<Transaction> result = transactionService.tryFullWithdrawal(user, amount);
+        metrics.stage("withdraw", "service_call", start);
+        return respond(result);
     }
 
     @PostMapping("/withdraw/partial")
-    public ResponseEntity<Transaction> partialWithdrawal(@RequestParam BigDecimal amount) {
-        User user = getCurrentUser();
-        Transaction transaction = transactionService.partialWithdrawal(user, amount);
-        return ResponseEntity.ok(transaction);
+    public ResponseEntity<?> partialWithdrawal(@RequestParam BigDecimal amount) {
+        User user = getCurrentUser("withdraw");
+        long start = metrics.start();
+        Result<Transaction> result = transactionService.tryPartialWithdrawal(user, amount);
+        metrics.stage("withdraw", "service_call", start);
+        return respond(result);
+    }
+
+    // Rejections are answered here instead of travelling through exception resolution
+    private static ResponseEntity<?> respond(Result<Transaction> result) {
+        if (result instanceof Result.Ok<Transaction> ok) {
+            return ResponseEntity.ok(TransactionResponse.from(ok.value()));
+        }
+        return GlobalExceptionHandler.errorResponse(((Result.Rejected<Transaction>) result).code());
     }
 
     @GetMapping("/history")
-    public ResponseEntity<List<Transaction>> getTransactionHistory() {
-        User user = getCurrentUser();
+    public ResponseEntity<List<TransactionResponse>> getTransactionHistory(WebRequest webRequest) {
+        User user = getCurrentUser("history");
+        // Rows are only ever added or have their status moved on, so count, newest row and
+        // newest status change together identify the list
+        HistoryStamp stamp = transactionService.getHistoryStamp(user);
+        if (webRequest.checkNotModified(ETags.of(user.getId(), stamp.getCount(), stamp.getLatest(), stamp.getLastUpdated()))) {
+            return null;
+        }
         List<Transaction> transactions = transactionService.getTransactionsByUser(user);
-        return ResponseEntity.ok(transactions);
+        return ResponseEntity.ok(transactions.stream().map(TransactionResponse::from).toList());
     }
 }
 
@@ -1,12 +1,76 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.HistoryStamp;
+import com.example.demo.dto.TransferActivity;
+import com.example.demo.dto.TransferParties;
 import com.example.demo.model.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Every query carries a createdAt bound. With the partitioned schema the table is split by
+// created_at month, and a bound is what lets the database skip the months it cannot match.
 public interface TransactionRepository extends JpaRepository<Transaction, String> {
-    List<Transaction> findBySenderUserId(String senderUserId);
-    Optional<Transaction> findByVoucherNumber(String voucherNumber);
-}
 
+    @Query("select t from Transaction t where t.id = :id and t.createdAt >= :since")
+    Optional<Transaction> findRecent(@Param("id") String id, @Param("since") LocalDateTime since);
+
+    @Query("select t from Transaction t where t.voucherNumber = :voucherNumber and t.createdAt >= :since")
+    Optional<Transaction> findByVoucherNumberSince(@Param("voucherNumber") String voucherNumber, @Param("since") LocalDateTime since);
+
+    @Query("select t from Transaction t where (t.senderUserId = :userId or t.receiverCellNumber = :cellNumber) " +
+            "and t.createdAt >= :since order by t.createdAt desc")
+    List<Transaction> findHistory(@Param("userId") String userId, @Param("cellNumber") String cellNumber,
+                                  @Param("since") LocalDateTime since);
+
+    @Query("select count(t) as count, max(t.createdAt) as latest, max(coalesce(t.updatedAt, t.createdAt)) as lastUpdated " +
+            "from Transaction t " +
+            "where (t.senderUserId = :userId or t.receiverCellNumber = :cellNumber) and t.createdAt >= :since")
+    HistoryStamp findHistoryStamp(@Param("userId") String userId, @Param("cellNumber") String cellNumber,
+                                  @Param("since") LocalDateTime since);
+
+    // Updates in place without loading the row; createdAt narrows the write to one partition
+    @Modifying
+    @Query("update Transaction t set t.status = :status, t.updatedAt = :updatedAt " +
+            "where t.id = :id and t.createdAt = :createdAt and t.status = :expected")
+    int updateStatus(@Param("id") String id, @Param("createdAt") LocalDateTime createdAt,
+                     @Param("expected") String expected, @Param("status") String status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("select t from Transaction t where (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id)) and t.createdAt < :before order by t.createdAt asc, t.id asc")
+    List<Transaction> findAfterWatermark(@Param("createdAt") LocalDateTime createdAt, @Param("id") String id, @Param("before") LocalDateTime before, Pageable pageable);
+
+    // Parties of transactions written in [since, until) that involve one of the given accounts
+    @Query("select t.senderUserId as senderUserId, t.receiverUserId as receiverUserId, " +
+            "t.receiverCellNumber as receiverCellNumber, t.transactionType as transactionType from Transaction t " +
+            "where t.createdAt >= :since and t.createdAt < :until " +
+            "and (t.senderUserId in :userIds or t.receiverUserId in :userIds or t.receiverCellNumber in :cellNumbers)")
+    List<TransferParties> findPartiesBetween(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until,
+                                             @Param("userIds") Collection<String> userIds,
+                                             @Param("cellNumbers") Collection<String> cellNumbers);
+
+    // Oldest first, so first-seen payees and window buckets replay in the order they happened;
+    // keyset paged on (createdAt, id) like the reconciliation watermark
+    @Query("select t.id as id, t.senderUserId as senderUserId, t.receiverCellNumber as receiverCellNumber, " +
+            "t.amount as amount, t.createdAt as createdAt from Transaction t " +
+            "where t.transactionType = :type and (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id)) " +
+            "order by t.createdAt asc, t.id asc")
+    List<TransferActivity> findTransferActivity(@Param("type") String type, @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") String id, Pageable pageable);
+
+    // One month of activity for a page of users, for statement generation. Receivers match by
+    // user id; only rows written before receiverUserId was recorded fall back to the cell number
+    @Query("select t from Transaction t where (t.senderUserId in :userIds or t.receiverUserId in :userIds " +
+            "or (t.receiverUserId is null and t.receiverCellNumber in :cellNumbers)) " +
+            "and t.createdAt >= :from and t.createdAt < :to order by t.createdAt asc, t.id asc")
+    List<Transaction> findForStatements(@Param("userIds") Collection<String> userIds,
+                                        @Param("cellNumbers") Collection<String> cellNumbers,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,37 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record TransactionResponse(
+        String id,
+        String transactionType,
+        String status,
+        BigDecimal amount,
+        BigDecimal commissionAmount,
+        BigDecimal vatAmount,
+        String senderUserId,
+        String receiverCellNumber,
+        String receiverName,
+        String receiverSurname,
+        String voucherNumber,
+        LocalDateTime createdAt) {
+
+    public static TransactionResponse from(Transaction transaction) {
+        return new TransactionResponse(
+                transaction.getId(),
+                transaction.getTransactionType(),
+                transaction.getStatus(),
+                transaction.getAmount(),
+                transaction.getCommissionAmount(),
+                transaction.getVatAmount(),
+                transaction.getSenderUserId(),
+                transaction.getReceiverCellNumber(),
+                transaction.getReceiverName(),
+                transaction.getReceiverSurname(),
+                transaction.getVoucherNumber(),
+                transaction.getCreatedAt());
+    }
+}
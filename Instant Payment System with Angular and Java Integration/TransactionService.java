@@ -1,16 +1,24 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.dto.FeeBreakdown;
+import com.example.demo.dto.HistoryStamp;
+import com.example.demo.dto.RiskAssessment;
+import com.example.demo.dto.RiskDecision;
+import com.example.demo.exception.ErrorCode;
 import com.example.demo.model.Transaction;
 import com.example.demo.model.User;
 import com.example.demo.repository.TransactionRepository;
-import com.example.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,96 +29,233 @@ public class TransactionService {
     private TransactionRepository transactionRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private RiskService riskService;
+
+    @Autowired
+    private ReceiverDirectoryService receiverDirectoryService;
+
+    @Autowired
+    private PaymentMetrics metrics;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardTransferService shardTransferService;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    // History covers whole calendar months so the partitioned schema can prune everything older
+    @Value("${transactions.history-months:12}")
+    private int historyMonths;
 
     private static final BigDecimal COMMISSION_RATE = new BigDecimal("0.05"); // 5%
     private static final BigDecimal VAT_RATE = new BigDecimal("0.15"); // 15%
 
+    public static FeeBreakdown calculateFees(BigDecimal amount) {
+        BigDecimal commission = amount.multiply(COMMISSION_RATE);
+        BigDecimal vat = commission.multiply(VAT_RATE);
+        return new FeeBreakdown(commission, vat, amount.add(commission).add(vat));
+    }
+
+    @Transactional
+    @PreAuthorize("#sender.email == authentication.principal.username")
+    public Transaction sendMoney(User sender, String receiverAddress, BigDecimal amount) {
+        return transfer(sender, receiverAddress, amount).orElseThrow();
+    }
+
+    // Expected rejections come back as values and roll the transaction back without an exception
     @Transactional
     @PreAuthorize("#sender.email == authentication.principal.username")
-    public Transaction sendMoney(User sender, String receiverEmail, BigDecimal amount) {
-        Optional<User> receiverOptional = userRepository.findByEmail(receiverEmail);
-        if (receiverOptional.isEmpty()) {
-            throw new RuntimeException("Receiver not found");
+    public Result<Transaction> trySendMoney(User sender, String receiverAddress, BigDecimal amount) {
+        return transfer(sender, receiverAddress, amount);
+    }
+
+    private Result<Transaction> transfer(User sender, String receiverAddress, BigDecimal amount) {
+        metrics.timeCommit("send");
+        long start = metrics.start();
+        Optional<DirectoryEntry> resolved = receiverDirectoryService.resolve(receiverAddress);
+        if (resolved.isEmpty()) {
+            return reject("SEND_MONEY", "receiver_not_found", ErrorCode.RECEIVER_NOT_FOUND);
         }
-        User receiver = receiverOptional.get();
+        DirectoryEntry receiver = resolved.get();
+        if (receiver.getUserId().equals(sender.getId())) {
+            return reject("SEND_MONEY", "self_transfer", ErrorCode.SELF_TRANSFER);
+        }
+        metrics.stage("send", "receiver_lookup", start);
 
-        BigDecimal commission = amount.multiply(COMMISSION_RATE);
-        BigDecimal vat = commission.multiply(VAT_RATE);
-        BigDecimal totalDeduction = amount.add(commission).add(vat);
+        start = metrics.start();
+        RiskAssessment risk = riskService.assessTransfer(sender.getId(), receiver.getCellNumber(), amount);
+        metrics.stage("send", "risk", start);
+        if (risk.getDecision() == RiskDecision.BLOCK) {
+            // The rule that fired stays server-side
+            return reject("SEND_MONEY", "risk_blocked", ErrorCode.RISK_BLOCKED);
+        }
+
+        FeeBreakdown fees = calculateFees(amount);
+        BigDecimal commission = fees.getCommission();
+        BigDecimal vat = fees.getVat();
+        BigDecimal totalDeduction = fees.getTotal();
 
-        if (sender.getBalance().compareTo(totalDeduction) < 0) {
-            throw new RuntimeException("Insufficient balance to cover amount, commission and VAT");
+        // The caller's User was loaded before this transaction; the balance check and debit use
+        // the locked row so concurrent debits queue and credits applied meanwhile are kept
+        User debited = hotAccountService.lockForDebit(sender.getId(), totalDeduction);
+        if (debited.getBalance().compareTo(totalDeduction) < 0) {
+            return reject("SEND_MONEY", "insufficient_funds", ErrorCode.INSUFFICIENT_FUNDS);
         }
 
-        sender.setBalance(sender.getBalance().subtract(totalDeduction));
-        receiver.setBalance(receiver.getBalance().add(amount));
+        start = metrics.start();
+        debited.setBalance(debited.getBalance().subtract(totalDeduction));
+        debited.setUpdatedAt(LocalDateTime.now());
+        sender.setBalance(debited.getBalance());
+        balanceService.evictAfterCommit(sender.getId());
+        metrics.stage("send", "debit_sender", start);
 
-        userRepository.save(sender);
-        userRepository.save(receiver);
+        // Credit by primary key so a cached receiver never needs to be loaded
+        boolean local = shardRouter.isLocal(receiver.getUserId());
+        start = metrics.start();
+        if (local && hotAccountService.credit(receiver.getUserId(), amount) == 0) {
+            receiverDirectoryService.invalidate(receiver.getEmail(), receiver.getCellNumber());
+            return reject("SEND_MONEY", "receiver_not_found", ErrorCode.RECEIVER_NOT_FOUND);
+        }
+        if (local) {
+            balanceService.evictAfterCommit(receiver.getUserId());
+        }
+        metrics.stage("send", "credit_receiver", start);
 
         Transaction transaction = new Transaction();
-        transaction.setSender(sender);
-        transaction.setReceiver(receiver);
+        transaction.setSenderUserId(sender.getId());
+        transaction.setReceiverCellNumber(receiver.getCellNumber());
+        if (local) {
+            transaction.setReceiverUserId(receiver.getUserId());
+        }
+        transaction.setReceiverName(receiver.getFirstName());
+        transaction.setReceiverSurname(receiver.getLastName());
         transaction.setAmount(amount);
-        transaction.setCommission(commission);
-        transaction.setVat(vat);
-        transaction.setTotalAmount(totalDeduction);
-        transaction.setType("SEND_MONEY");
-        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setCommissionAmount(commission);
+        transaction.setVatAmount(vat);
+        transaction.setTransactionType("SEND_MONEY");
+        transaction.setStatus(risk.getDecision() == RiskDecision.REVIEW ? "UNDER_REVIEW" : "COMPLETED");
+        transaction.setCreatedAt(LocalDateTime.now());
+        transaction.setUpdatedAt(transaction.getCreatedAt());
+        if (!local && "COMPLETED".equals(transaction.getStatus())) {
+            // Completed once the receiver's node commits; refunded by a REVERSAL if it aborts
+            transaction.setStatus("PENDING");
+        }
 
-        return transactionRepository.save(transaction);
+        start = metrics.start();
+        Transaction saved = transactionRepository.save(transaction);
+        if (!local) {
+            shardTransferService.reserve(saved, receiver, totalDeduction);
+        }
+        metrics.stage("send", "persist_transaction", start);
+
+        // Delivery happens in NotificationDispatcher; only the outbox rows are written here.
+        // A remote receiver is notified by its own node when the transfer commits there.
+        start = metrics.start();
+        notificationOutbox.enqueue(sender.getId(), sender.getCellNumber(), "TRANSFER_SENT",
+                "You sent " + NotificationOutbox.money(amount) + " to " + receiver.getDisplayName()
+                        + ". Fees " + NotificationOutbox.money(commission.add(vat))
+                        + ". Balance " + NotificationOutbox.money(sender.getBalance()) + ".");
+        if (local) {
+            notificationOutbox.enqueue(receiver.getUserId(), receiver.getCellNumber(), "TRANSFER_RECEIVED",
+                    "You received " + NotificationOutbox.money(amount) + " from "
+                            + sender.getFirstName() + " " + sender.getLastName() + ".");
+        }
+        metrics.stage("send", "outbox", start);
+        metrics.transferCompleted("SEND_MONEY", commission, vat);
+        return Result.ok(saved);
     }
 
     @Transactional
     @PreAuthorize("#user.email == authentication.principal.username")
     public Transaction fullWithdrawal(User user, BigDecimal amount) {
-        if (user.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient funds for full withdrawal");
-        }
-
-        user.setBalance(user.getBalance().subtract(amount));
-        userRepository.save(user);
-
-        Transaction transaction = new Transaction();
-        transaction.setSender(user);
-        transaction.setReceiver(user); // Self-transaction for withdrawal
-        transaction.setAmount(amount);
-        transaction.setCommission(BigDecimal.ZERO);
-        transaction.setVat(BigDecimal.ZERO);
-        transaction.setTotalAmount(amount);
-        transaction.setType("FULL_WITHDRAWAL");
-        transaction.setTransactionDate(LocalDateTime.now());
+        return withdraw(user, amount, "FULL_WITHDRAWAL").orElseThrow();
+    }
 
-        return transactionRepository.save(transaction);
+    @Transactional
+    @PreAuthorize("#user.email == authentication.principal.username")
+    public Result<Transaction> tryFullWithdrawal(User user, BigDecimal amount) {
+        return withdraw(user, amount, "FULL_WITHDRAWAL");
     }
 
     @Transactional
     @PreAuthorize("#user.email == authentication.principal.username")
     public Transaction partialWithdrawal(User user, BigDecimal amount) {
-        if (user.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient funds for partial withdrawal");
+        return withdraw(user, amount, "PARTIAL_WITHDRAWAL").orElseThrow();
+    }
+
+    @Transactional
+    @PreAuthorize("#user.email == authentication.principal.username")
+    public Result<Transaction> tryPartialWithdrawal(User user, BigDecimal amount) {
+        return withdraw(user, amount, "PARTIAL_WITHDRAWAL");
+    }
+
+    private Result<Transaction> withdraw(User user, BigDecimal amount, String type) {
+        metrics.timeCommit("withdraw");
+        User debited = hotAccountService.lockForDebit(user.getId(), amount);
+        if (debited.getBalance().compareTo(amount) < 0) {
+            return reject(type, "insufficient_funds", ErrorCode.INSUFFICIENT_FUNDS);
         }
 
-        user.setBalance(user.getBalance().subtract(amount));
-        userRepository.save(user);
+        long start = metrics.start();
+        debited.setBalance(debited.getBalance().subtract(amount));
+        debited.setUpdatedAt(LocalDateTime.now());
+        user.setBalance(debited.getBalance());
+        balanceService.evictAfterCommit(user.getId());
+        metrics.stage("withdraw", "debit_sender", start);
 
         Transaction transaction = new Transaction();
-        transaction.setSender(user);
-        transaction.setReceiver(user); // Self-transaction for withdrawal
+        transaction.setSenderUserId(user.getId());
+        transaction.setReceiverCellNumber(user.getCellNumber()); // Self-transaction for withdrawal
         transaction.setAmount(amount);
-        transaction.setCommission(BigDecimal.ZERO);
-        transaction.setVat(BigDecimal.ZERO);
-        transaction.setTotalAmount(amount);
-        transaction.setType("PARTIAL_WITHDRAWAL");
-        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setCommissionAmount(BigDecimal.ZERO);
+        transaction.setVatAmount(BigDecimal.ZERO);
+        transaction.setTransactionType(type);
+        transaction.setStatus("COMPLETED");
+        transaction.setCreatedAt(LocalDateTime.now());
+        transaction.setUpdatedAt(transaction.getCreatedAt());
 
-        return transactionRepository.save(transaction);
+        start = metrics.start();
+        Transaction saved = transactionRepository.save(transaction);
+        metrics.stage("withdraw", "persist_transaction", start);
+
+        notificationOutbox.enqueue(user.getId(), user.getCellNumber(), type,
+                "Withdrawal of " + NotificationOutbox.money(amount) + ". Balance "
+                        + NotificationOutbox.money(user.getBalance()) + ".");
+        metrics.transferCompleted(type, null, null);
+        return Result.ok(saved);
+    }
+
+    // Undoes anything already written in this transaction, such as risk counters or a debit
+    private <T> Result<T> reject(String type, String reason, ErrorCode code) {
+        metrics.rejected(type, reason);
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        return Result.rejected(code);
     }
 
     @PreAuthorize("#user.email == authentication.principal.username")
     public List<Transaction> getTransactionsByUser(User user) {
-        return transactionRepository.findBySenderOrReceiver(user, user);
+        long start = metrics.start();
+        List<Transaction> transactions = transactionRepository
+                .findHistory(user.getId(), user.getCellNumber(), historyStart());
+        metrics.stage("history", "query", start);
+        return transactions;
     }
-}
 
+    @PreAuthorize("#user.email == authentication.principal.username")
+    public HistoryStamp getHistoryStamp(User user) {
+        return transactionRepository.findHistoryStamp(user.getId(), user.getCellNumber(), historyStart());
+    }
+
+    private LocalDateTime historyStart() {
+        return YearMonth.now().minusMonths(historyMonths - 1L).atDay(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Just the columns the risk counters replay, so a startup rebuild does not hydrate entities
+public interface TransferActivity {
+    String getId();
+    String getSenderUserId();
+    String getReceiverCellNumber();
+    BigDecimal getAmount();
+    LocalDateTime getCreatedAt();
+}
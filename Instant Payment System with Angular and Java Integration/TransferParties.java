@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+// The accounts a transaction touches, for reconciliation's in-flight check
+public interface TransferParties {
+    String getSenderUserId();
+    String getReceiverUserId();
+    String getReceiverCellNumber();
+    String getTransactionType();
+}
@@ -0,0 +1,9 @@
+package com.example.demo.exception;
+
+// A node the answer depends on could not be reached; the request may be retried
+public class UnavailableException extends DomainException {
+
+    UnavailableException(ErrorCode code, String message) {
+        super(code, message);
+    }
+}
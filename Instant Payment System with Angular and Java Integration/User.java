@@ -2,6 +2,7 @@ package com.example.demo.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.GenericGenerator;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -10,7 +11,8 @@ import java.time.LocalDateTime;
 @Data
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedValue(generator = "assignable-uuid")
+    @GenericGenerator(name = "assignable-uuid", type = AssignableUuidGenerator.class)
     private String id;
     @Column(unique = true, nullable = false)
     private String email;
@@ -28,6 +30,9 @@ public class User {
     private String cellNumber;
     @Column(nullable = false)
     private BigDecimal balance = new BigDecimal("1000.00");
+    // Number of balance_buckets rows spreading inbound credits; 0 for ordinary accounts
+    @Column(nullable = false)
+    private int balanceBuckets;
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     @Column(nullable = false)
@@ -0,0 +1,16 @@
+package com.example.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Published whenever a user's addressable identity (email or cell number) may have
+// changed, carrying both the previous and the new values so caches can drop them.
+@Data
+@AllArgsConstructor
+public class UserChangedEvent {
+    private String userId;
+    private List<String> emails;
+    private List<String> cellNumbers;
+}
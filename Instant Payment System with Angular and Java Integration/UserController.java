@@ -0,0 +1,69 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.BalanceResponse;
+import com.example.demo.dto.DirectoryEntry;
+import com.example.demo.dto.UserResponse;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.BalanceService;
+import com.example.demo.service.ReceiverDirectoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ReceiverDirectoryService receiverDirectoryService;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        return userRepository.findByEmail(username)
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
+    }
+
+    @GetMapping("/{userId}/profile")
+    public ResponseEntity<UserResponse> getProfile(@PathVariable String userId, WebRequest webRequest) {
+        User user = getCurrentUser();
+        if (!user.getId().equals(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        UserResponse profile = UserResponse.from(user);
+        if (webRequest.checkNotModified(ETags.of(profile))) {
+            return null;
+        }
+        return ResponseEntity.ok(profile);
+    }
+
+    @GetMapping("/{userId}/balance")
+    public ResponseEntity<BalanceResponse> getBalance(@PathVariable String userId, WebRequest webRequest) {
+        // Dashboards poll this, so the caller's id comes from the directory cache and the
+        // balance from the balance cache rather than loading the user row each time
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        DirectoryEntry caller = receiverDirectoryService.resolve(email)
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception());
+        if (!caller.getUserId().equals(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        BalanceResponse balance = new BalanceResponse(userId, balanceService.getBalance(userId)
+                .orElseThrow(() -> ErrorCode.USER_NOT_FOUND.exception()));
+        if (webRequest.checkNotModified(ETags.of(balance))) {
+            return null;
+        }
+        return ResponseEntity.ok(balance);
+    }
+}
@@ -1,14 +1,54 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.DirectoryEntry;
 import com.example.demo.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
     Optional<User> findByCellNumber(String cellNumber);
-}
 
 
     Optional<User> findByIdPassport(String idPassport);
 
+    @Query("select new com.example.demo.dto.DirectoryEntry(u.id, u.firstName, u.lastName, u.email, u.cellNumber) from User u where u.email = :email")
+    Optional<DirectoryEntry> findDirectoryEntryByEmail(@Param("email") String email);
+
+    @Query("select new com.example.demo.dto.DirectoryEntry(u.id, u.firstName, u.lastName, u.email, u.cellNumber) from User u where u.cellNumber = :cellNumber")
+    Optional<DirectoryEntry> findDirectoryEntryByCellNumber(@Param("cellNumber") String cellNumber);
+
+    @Query("select new com.example.demo.dto.DirectoryEntry(u.id, u.firstName, u.lastName, u.email, u.cellNumber) from User u where u.cellNumber in :cellNumbers")
+    List<DirectoryEntry> findDirectoryEntriesByCellNumberIn(@Param("cellNumbers") Collection<String> cellNumbers);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") String id);
+
+    @Query("select u.id, u.balanceBuckets from User u where u.balanceBuckets > 0")
+    List<Object[]> findHotAccounts();
+
+    @Query("select u.balance from User u where u.id = :id")
+    Optional<BigDecimal> findBalanceById(@Param("id") String id);
+
+    // Keyset page over every account, for batch jobs
+    @Query("select new com.example.demo.dto.DirectoryEntry(u.id, u.firstName, u.lastName, u.email, u.cellNumber) from User u where u.id > :afterId order by u.id")
+    List<DirectoryEntry> findDirectoryPage(@Param("afterId") String afterId, Pageable pageable);
+
+    // Keyset page of whole accounts, for batch jobs that need balances
+    @Query("select u from User u where u.id > :afterId order by u.id")
+    List<User> findPage(@Param("afterId") String afterId, Pageable pageable);
+
+    @Modifying
+    @Query("update User u set u.balance = u.balance + :amount, u.updatedAt = current_timestamp where u.id = :id")
+    int creditBalance(@Param("id") String id, @Param("amount") BigDecimal amount);
+}
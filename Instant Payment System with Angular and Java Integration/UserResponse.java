@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record UserResponse(
+        String id,
+        String email,
+        String firstName,
+        String lastName,
+        String idPassport,
+        String physicalAddress,
+        String cellNumber,
+        BigDecimal balance,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static UserResponse from(User user) {
+        return new UserResponse(
+                user.getId(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getIdPassport(),
+                user.getPhysicalAddress(),
+                user.getCellNumber(),
+                user.getBalance(),
+                user.getCreatedAt(),
+                user.getUpdatedAt());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.service;
 
+import com.example.demo.exception.ErrorCode;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,10 +25,10 @@ public class UserService {
 
     public User registerNewUser(String email, String password, String firstName, String lastName, String idPassport, String physicalAddress, String cellNumber) {
         if (userRepository.findByEmail(email).isPresent()) {
-            throw new RuntimeException("Email already exists");
+            throw ErrorCode.EMAIL_TAKEN.exception();
         }
         if (userRepository.findByIdPassport(idPassport).isPresent()) {
-            throw new RuntimeException("ID/Passport is already registered!");
+            throw ErrorCode.ID_PASSPORT_TAKEN.exception();
         }
 
         User user = new User();
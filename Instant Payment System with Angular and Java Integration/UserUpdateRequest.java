@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+
+public record UserUpdateRequest(
+        String email,
+        String firstName,
+        String lastName,
+        String idPassport,
+        String physicalAddress,
+        String cellNumber,
+        BigDecimal balance) {
+}
@@ -0,0 +1,134 @@
+-- Baseline schema for the partitioned profile (PostgreSQL 14+), matching the JPA mappings.
+-- The transactions table is created separately in V2.
+
+create table users (
+    id                  varchar(255)   not null primary key,
+    email               varchar(255)   not null unique,
+    password_hash       varchar(255)   not null,
+    first_name          varchar(255)   not null,
+    last_name           varchar(255)   not null,
+    id_passport         varchar(255)   not null unique,
+    physical_address    varchar(255)   not null,
+    cell_number         varchar(255)   not null unique,
+    balance             numeric(38, 2) not null,
+    balance_buckets     integer        not null default 0,
+    created_at          timestamp(6)   not null,
+    updated_at          timestamp(6)   not null
+);
+
+create table admins (
+    id                  varchar(255) not null primary key,
+    email               varchar(255) not null unique,
+    password_hash       varchar(255) not null,
+    role                varchar(255) not null
+);
+
+create table organizations (
+    id                  varchar(255) not null primary key,
+    name                varchar(255) not null unique,
+    address             varchar(255) not null,
+    contact_person      varchar(255),
+    contact_number      varchar(255),
+    latitude            float(53),
+    longitude           float(53)
+);
+
+create table enquiries (
+    id                  varchar(255) not null primary key,
+    user_id             varchar(255) not null,
+    subject             varchar(255) not null,
+    message             varchar(255) not null,
+    status              varchar(255) not null,
+    created_at          timestamp(6) not null,
+    response            varchar(255),
+    responded_at        timestamp(6)
+);
+
+create index idx_enquiries_user on enquiries (user_id);
+
+create table balance_buckets (
+    id                  varchar(255)   not null primary key,
+    user_id             varchar(255)   not null,
+    bucket_index        integer        not null,
+    amount              numeric(38, 2) not null,
+    updated_at          timestamp(6)   not null
+);
+
+create index idx_balance_buckets_user on balance_buckets (user_id);
+
+create table ledger_balances (
+    user_id             varchar(255)   not null primary key,
+    net_flow            numeric(38, 2) not null,
+    updated_at          timestamp(6)   not null
+);
+
+create table reconciliation_checkpoints (
+    name                     varchar(255) not null primary key,
+    watermark_created_at     timestamp(6) not null,
+    watermark_transaction_id varchar(255) not null,
+    transactions_processed   bigint       not null,
+    updated_at               timestamp(6) not null
+);
+
+create table notification_outbox (
+    id                  varchar(255) not null primary key,
+    recipient_user_id   varchar(255) not null,
+    channel             varchar(255) not null,
+    address             varchar(255) not null,
+    event_type          varchar(255) not null,
+    message             varchar(500) not null,
+    state               varchar(255) not null,
+    attempts            integer      not null,
+    next_attempt_at     timestamp(6) not null,
+    claimed_at          timestamp(6),
+    sent_at             timestamp(6),
+    last_error          varchar(500),
+    created_at          timestamp(6) not null
+);
+
+create index idx_outbox_state_next_attempt on notification_outbox (state, next_attempt_at);
+
+create table standing_orders (
+    id                      varchar(255)   not null primary key,
+    version                 bigint         not null,
+    sender_user_id          varchar(255)   not null,
+    receiver_address        varchar(255)   not null,
+    amount                  numeric(38, 2) not null,
+    frequency               varchar(255)   not null,
+    day_of_month            integer        not null,
+    anchor_at               timestamp(6)   not null,
+    next_run_at             timestamp(6)   not null,
+    end_at                  timestamp(6),
+    status                  varchar(255)   not null,
+    max_retries             integer        not null,
+    retry_interval_minutes  integer        not null,
+    failed_attempts         integer        not null,
+    executions              bigint         not null,
+    last_run_at             timestamp(6),
+    last_result             varchar(255),
+    last_transaction_id     varchar(255),
+    created_at              timestamp(6)   not null,
+    updated_at              timestamp(6)   not null
+);
+
+create index idx_standing_orders_status_next_run on standing_orders (status, next_run_at, id);
+create index idx_standing_orders_sender on standing_orders (sender_user_id);
+
+create table shard_transfers (
+    id                  varchar(255)   not null primary key,
+    version             bigint         not null,
+    direction           varchar(255)   not null,
+    state               varchar(255)   not null,
+    transaction_id      varchar(255),
+    sender_user_id      varchar(255)   not null,
+    receiver_user_id    varchar(255)   not null,
+    receiver_cell_number varchar(255)  not null,
+    amount              numeric(38, 2) not null,
+    total_deduction     numeric(38, 2) not null,
+    peer_node           integer        not null,
+    attempts            integer        not null,
+    created_at          timestamp(6)   not null,
+    updated_at          timestamp(6)   not null
+);
+
+create index idx_shard_transfers_recovery on shard_transfers (direction, state, updated_at);
@@ -0,0 +1,45 @@
+-- Transactions partitioned by created_at month. Partitions are named transactions_pYYYYMM;
+-- PartitionMaintenanceService keeps future months created and detaches expired ones.
+-- There is deliberately no default partition: a row with no month to go to fails loudly
+-- instead of silently landing somewhere that defeats pruning and blocks later attaches.
+
+create table transactions (
+    id                   varchar(255)   not null,
+    sender_user_id       varchar(255)   not null,
+    receiver_cell_number varchar(255)   not null,
+    transaction_type     varchar(255)   not null,
+    amount               numeric(38, 2) not null,
+    commission_amount    numeric(38, 2),
+    vat_amount           numeric(38, 2),
+    withdrawal_pin       varchar(255),
+    voucher_number       varchar(255),
+    status               varchar(255)   not null,
+    created_at           timestamp(6)   not null,
+    receiver_name        varchar(255),
+    receiver_surname     varchar(255),
+    receiver_id_passport varchar(255),
+    receiver_address     varchar(255),
+    -- Unique constraints on a partitioned table must include the partition key
+    primary key (id, created_at)
+) partition by range (created_at);
+
+-- Indexes declared on the parent are created on every partition, present and future.
+-- History and its ETag stamp: one side each of the sender/receiver OR, newest first
+create index idx_transactions_sender_created on transactions (sender_user_id, created_at desc);
+create index idx_transactions_receiver_created on transactions (receiver_cell_number, created_at desc);
+-- Reconciliation watermark scan and statements walk (created_at, id) in order
+create index idx_transactions_created_id on transactions (created_at, id);
+-- Uniqueness can only be enforced per month here; voucher lookups are date-bounded anyway
+create unique index idx_transactions_voucher on transactions (voucher_number, created_at);
+
+-- Last month, this month and the next three, so the application can write from the first request
+do $$
+declare
+    month date := date_trunc('month', current_date) - interval '1 month';
+begin
+    for i in 0..4 loop
+        execute format('create table if not exists %I partition of transactions for values from (%L) to (%L)',
+                       'transactions_p' || to_char(month, 'YYYYMM'), month, month + interval '1 month');
+        month := month + interval '1 month';
+    end loop;
+end $$;
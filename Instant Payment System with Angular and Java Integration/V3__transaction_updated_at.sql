@@ -0,0 +1,5 @@
+-- Status changes stamp updated_at so the history ETag moves when a transfer settles or fails.
+-- Adding the column to the parent adds it to every partition; existing rows fall back to
+-- created_at in the stamp query, so no backfill is needed.
+
+alter table transactions add column updated_at timestamp(6);
@@ -0,0 +1,31 @@
+-- A unique index on a partitioned table has to include the partition key, so the
+-- (voucher_number, created_at) index from V2 only rejected a duplicate voucher issued in the
+-- same microsecond. Voucher numbers are claimed in this unpartitioned table instead, from a
+-- trigger in the inserting transaction, so a duplicate fails the insert exactly as a unique
+-- column would and stays claimed after its month is detached.
+
+create table vouchers (
+    voucher_number varchar(255) not null primary key,
+    transaction_id varchar(255) not null,
+    created_at     timestamp(6) not null
+);
+
+insert into vouchers (voucher_number, transaction_id, created_at)
+select voucher_number, id, created_at from transactions where voucher_number is not null;
+
+create function claim_voucher() returns trigger language plpgsql as $$
+begin
+    insert into vouchers (voucher_number, transaction_id, created_at)
+    values (new.voucher_number, new.id, new.created_at);
+    return null;
+end $$;
+
+-- Row triggers on the parent fire for every partition, present and future
+create trigger transactions_claim_voucher
+    after insert on transactions
+    for each row when (new.voucher_number is not null)
+    execute function claim_voucher();
+
+drop index idx_transactions_voucher;
+-- Voucher lookups are still date-bounded, so a plain per-partition index serves them
+create index idx_transactions_voucher on transactions (voucher_number, created_at);
@@ -0,0 +1,4 @@
+-- The credited local account, recorded at send time so reconciliation no longer maps every
+-- receiver cell number back to an account. Older rows stay null and are resolved by cell.
+
+alter table transactions add column receiver_user_id varchar(255);
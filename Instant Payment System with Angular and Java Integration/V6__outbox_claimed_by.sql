@@ -0,0 +1,5 @@
+-- Per-run claim token for the notification outbox; a dispatcher reads back only the rows it claimed.
+
+alter table notification_outbox add column claimed_by varchar(255);
+
+create index idx_outbox_claimed_by on notification_outbox (claimed_by);
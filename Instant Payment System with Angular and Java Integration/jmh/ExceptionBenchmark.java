@@ -0,0 +1,114 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.exception.DomainException;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.exception.GlobalExceptionHandler;
+import com.example.demo.service.Result;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Cost of one rejected request, before and after the domain error changes. The depth param
+// approximates how far below the servlet the rejection happens; fillInStackTrace walks all
+// of it, which is what the stackless and Result variants avoid.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExceptionBenchmark {
+
+    private static final String MESSAGE = "Insufficient balance to cover amount, commission and VAT";
+
+    @Param({"1", "100"})
+    public int depth;
+
+    @Benchmark
+    public RuntimeException createRuntimeException() {
+        return new RuntimeException(MESSAGE);
+    }
+
+    @Benchmark
+    public String throwAndCatchRuntimeException() {
+        try {
+            throwRuntime(depth);
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String throwAndCatchSharedDomainException() {
+        try {
+            throwShared(depth);
+            return null;
+        } catch (DomainException e) {
+            return e.getCode().name();
+        }
+    }
+
+    @Benchmark
+    public String throwAndCatchFreshDomainException() {
+        try {
+            throwFresh(depth);
+            return null;
+        } catch (DomainException e) {
+            return e.getCode().name();
+        }
+    }
+
+    @Benchmark
+    public String returnRejectedResult() {
+        Result<String> result = reject(depth);
+        return result instanceof Result.Rejected<String> rejected ? rejected.code().name() : null;
+    }
+
+    // Same work GlobalExceptionHandler.handleRuntimeException does per rejection
+    @Benchmark
+    public Map<String, String> handlerErrorBody() {
+        RuntimeException ex = new RuntimeException(MESSAGE);
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Operation failed");
+        error.put("message", ex.getMessage());
+        return error;
+    }
+
+    // What a controller does with a rejected Result: no exception at all
+    @Benchmark
+    public ResponseEntity<Map<String, String>> resultErrorResponse() {
+        return GlobalExceptionHandler.errorResponse(ErrorCode.INSUFFICIENT_FUNDS);
+    }
+
+    private static void throwRuntime(int frames) {
+        if (frames > 1) {
+            throwRuntime(frames - 1);
+            return;
+        }
+        throw new RuntimeException(MESSAGE);
+    }
+
+    private static void throwShared(int frames) {
+        if (frames > 1) {
+            throwShared(frames - 1);
+            return;
+        }
+        throw ErrorCode.INSUFFICIENT_FUNDS.exception();
+    }
+
+    private static void throwFresh(int frames) {
+        if (frames > 1) {
+            throwFresh(frames - 1);
+            return;
+        }
+        throw ErrorCode.INSUFFICIENT_FUNDS.exception(MESSAGE);
+    }
+
+    private static Result<String> reject(int frames) {
+        if (frames > 1) {
+            return reject(frames - 1);
+        }
+        return Result.rejected(ErrorCode.INSUFFICIENT_FUNDS);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.FeeBreakdown;
+import com.example.demo.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FeeCalculationBenchmark {
+
+    @Param({"10.00", "250.50", "99999.99"})
+    private String amount;
+
+    private BigDecimal value;
+
+    @Setup
+    public void setup() {
+        value = new BigDecimal(amount);
+    }
+
+    @Benchmark
+    public FeeBreakdown calculateFees() {
+        return TransactionService.calculateFees(value);
+    }
+}
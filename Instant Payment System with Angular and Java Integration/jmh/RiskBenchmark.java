@@ -0,0 +1,93 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.RiskProperties;
+import com.example.demo.dto.RiskAssessment;
+import com.example.demo.service.RiskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Latency of the risk stage in the transfer path; the target is well under a millisecond
+// at p99, read from the p0.99 line of the sample-time output. The rules mirror
+// application.properties but never block, so every call takes the check-and-record path.
+// A single receiver puts every thread on the same receiver counters, the worst case for
+// CAS contention.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class RiskBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("125.50");
+
+    @Param({"1000", "100000"})
+    public int senders;
+
+    @Param({"1", "10000"})
+    public int receivers;
+
+    private RiskService riskService;
+    private String[] senderIds;
+    private String[] receiverCells;
+
+    @Setup
+    public void setup() throws Exception {
+        RiskProperties properties = new RiskProperties();
+        properties.setNewRecipientsReview(Integer.MAX_VALUE);
+        properties.setNewRecipientsBlock(Integer.MAX_VALUE);
+        properties.setRules(List.of(
+                rule(RiskProperties.Scope.SENDER, RiskProperties.Window.MINUTE, RiskProperties.Metric.COUNT),
+                rule(RiskProperties.Scope.SENDER, RiskProperties.Window.HOUR, RiskProperties.Metric.AMOUNT),
+                rule(RiskProperties.Scope.SENDER, RiskProperties.Window.DAY, RiskProperties.Metric.AMOUNT),
+                rule(RiskProperties.Scope.RECEIVER, RiskProperties.Window.MINUTE, RiskProperties.Metric.COUNT),
+                rule(RiskProperties.Scope.RECEIVER, RiskProperties.Window.DAY, RiskProperties.Metric.AMOUNT)));
+
+        riskService = new RiskService();
+        inject("riskProperties", properties);
+        inject("meterRegistry", new SimpleMeterRegistry());
+        // No history to replay; opens the rebuild gate the way startup would
+        ((CountDownLatch) field("rebuilt").get(riskService)).countDown();
+
+        senderIds = new String[senders];
+        for (int i = 0; i < senders; i++) {
+            senderIds[i] = "sender-" + i;
+        }
+        receiverCells = new String[receivers];
+        for (int i = 0; i < receivers; i++) {
+            receiverCells[i] = String.format("07%08d", i);
+        }
+    }
+
+    @Benchmark
+    public RiskAssessment assessTransfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return riskService.assessTransfer(senderIds[random.nextInt(senders)],
+                receiverCells[random.nextInt(receivers)], AMOUNT);
+    }
+
+    private void inject(String name, Object value) throws Exception {
+        field(name).set(riskService, value);
+    }
+
+    private static Field field(String name) throws Exception {
+        Field field = RiskService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    private static RiskProperties.Rule rule(RiskProperties.Scope scope, RiskProperties.Window window,
+                                            RiskProperties.Metric metric) {
+        RiskProperties.Rule rule = new RiskProperties.Rule();
+        rule.setScope(scope);
+        rule.setWindow(window);
+        rule.setMetric(metric);
+        rule.setReviewAbove(new BigDecimal("1000000000"));
+        return rule;
+    }
+}
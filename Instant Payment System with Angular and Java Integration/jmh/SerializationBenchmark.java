@@ -0,0 +1,116 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.TransactionResponse;
+import com.example.demo.dto.UserResponse;
+import com.example.demo.model.Transaction;
+import com.example.demo.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+    private List<Transaction> transactions;
+    private List<User> users;
+    private List<TransactionResponse> transactionResponses;
+    private List<UserResponse> userResponses;
+
+    @Setup
+    public void setup() {
+        // Mirrors the Boot defaults: java.time support, ISO dates rather than timestamps
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        cborMapper = CBORMapper.builder().findAndAddModules().build();
+        smileMapper = SmileMapper.builder().findAndAddModules().build();
+        transactions = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            transactions.add(transaction(i));
+            users.add(user(i));
+        }
+        transactionResponses = transactions.stream().map(TransactionResponse::from).toList();
+        userResponses = users.stream().map(UserResponse::from).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeTransactions() throws Exception {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws Exception {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(transactionResponses);
+    }
+
+    @Benchmark
+    public byte[] serializeUserResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(userResponses);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionResponsesCbor() throws Exception {
+        return cborMapper.writeValueAsBytes(transactionResponses);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionResponsesSmile() throws Exception {
+        return smileMapper.writeValueAsBytes(transactionResponses);
+    }
+
+    private static Transaction transaction(int i) {
+        BigDecimal amount = BigDecimal.valueOf(100 + i, 2);
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID().toString());
+        transaction.setSenderUserId(UUID.randomUUID().toString());
+        transaction.setReceiverCellNumber("08200" + String.format("%05d", i));
+        transaction.setTransactionType("SEND_MONEY");
+        transaction.setAmount(amount);
+        transaction.setCommissionAmount(amount.multiply(new BigDecimal("0.05")));
+        transaction.setVatAmount(amount.multiply(new BigDecimal("0.0075")));
+        transaction.setVoucherNumber("VP" + (100000000 + i));
+        transaction.setStatus("COMPLETED");
+        transaction.setCreatedAt(LocalDateTime.now());
+        transaction.setReceiverName("Thandi");
+        transaction.setReceiverSurname("Mokoena");
+        return transaction;
+    }
+
+    private static User user(int i) {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("user" + i + "@example.com");
+        user.setPasswordHash("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6aV7pGzT0zGZ8xK1b5b5b5e");
+        user.setFirstName("Sipho");
+        user.setLastName("Dlamini");
+        user.setIdPassport("ID" + (8000000000L + i));
+        user.setPhysicalAddress(i + " Long Street, Cape Town");
+        user.setCellNumber("07100" + String.format("%05d", i));
+        return user;
+    }
+}
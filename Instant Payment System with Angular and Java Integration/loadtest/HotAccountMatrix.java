@@ -0,0 +1,54 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Drives HOT_RECEIVER once per bucket count, each against a fresh application and database,
+// and prints send throughput next to the ordinary-account run (K = 0). Inbound throughput
+// should grow roughly linearly with K until something other than the receiver's rows limits
+// it; the rate has to be set above what a single row sustains for that to show.
+public class HotAccountMatrix {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions base = LoadTestOptions.parse(args).with("scenario", "HOT_RECEIVER");
+        String[] buckets = base.get("buckets", "0,1,4,16,64").split(",");
+        Path root = Path.of(base.reportDir(), "hot-account");
+
+        List<String[]> rows = new ArrayList<>();
+        int failures = 0;
+        double reference = 0;
+        for (String k : buckets) {
+            String cell = "k" + k.trim();
+            LoadTestOptions options = base
+                    .with("report-dir", root.resolve(cell).toString())
+                    .with("hot-buckets", k.trim());
+            System.out.printf("=== %s%n", cell);
+            failures += new LoadTestRunner(options).run();
+            JsonNode json = new ObjectMapper().readTree(Files.readString(root.resolve(cell).resolve("hot_receiver.json")));
+            double throughput = 0;
+            double p99 = 0;
+            for (JsonNode operation : json.get("operations")) {
+                throughput += operation.get("throughput").asDouble();
+                p99 = Math.max(p99, operation.get("p99Ms").asDouble());
+            }
+            if (reference == 0) {
+                reference = throughput;
+            }
+            long errors = json.get("errors").asLong() + json.get("dropped").asLong();
+            rows.add(new String[] {k.trim(), String.format("%.1f", throughput),
+                    String.format("%.2fx", reference == 0 ? 0 : throughput / reference),
+                    String.format("%.2f", p99), String.valueOf(errors)});
+        }
+
+        System.out.printf("%n%-8s %12s %10s %10s %8s%n", "buckets", "sends/s", "vs first", "p99 ms", "errors");
+        for (String[] row : rows) {
+            System.out.printf("%-8s %12s %10s %10s %8s%n", (Object[]) row);
+        }
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadReport {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<Scenario.Kind, Recorder> recorders = new EnumMap<>(Scenario.Kind.class);
+    private final Map<Scenario.Kind, Histogram> totals = new EnumMap<>(Scenario.Kind.class);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean recording;
+
+    public LoadReport() {
+        for (Scenario.Kind kind : Scenario.Kind.values()) {
+            recorders.put(kind, new Recorder(MAX_LATENCY_NANOS, 3));
+            totals.put(kind, new Histogram(MAX_LATENCY_NANOS, 3));
+        }
+    }
+
+    // Warmup traffic is driven the same way but discarded here
+    public void startRecording() {
+        recorders.values().forEach(Recorder::reset);
+        recording = true;
+    }
+
+    public void stopRecording() {
+        recording = false;
+        recorders.forEach((kind, recorder) -> totals.get(kind).add(recorder.getIntervalHistogram()));
+    }
+
+    // Latency runs from the intended send time, so queueing delay is not hidden
+    public void record(Scenario.Kind kind, long intendedStartNanos, int status) {
+        if (!recording) {
+            return;
+        }
+        long latency = Math.min(System.nanoTime() - intendedStartNanos, MAX_LATENCY_NANOS);
+        recorders.get(kind).recordValue(latency);
+        if (status >= 200 && status < 300) {
+            successes.increment();
+        } else if (status == 400) {
+            rejections.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    public void recordRetry() {
+        if (recording) {
+            retries.increment();
+        }
+    }
+
+    public void recordDropped() {
+        if (recording) {
+            dropped.increment();
+        }
+    }
+
+    public long errors() {
+        return errors.sum() + dropped.sum();
+    }
+
+    public String render(Scenario scenario, int users, int rate, int durationSeconds) {
+        StringBuilder out = new StringBuilder();
+        long total = successes.sum() + rejections.sum() + errors.sum();
+        out.append(String.format("Scenario %s: %d users, target %d req/s for %ds%n", scenario, users, rate, durationSeconds));
+        out.append(String.format("Throughput %.1f req/s (%d ok, %d rejected, %d errors, %d retries, %d dropped)%n",
+                (double) total / durationSeconds, successes.sum(), rejections.sum(), errors.sum(), retries.sum(), dropped.sum()));
+        out.append(String.format("%-9s %10s %10s %10s %10s %10s%n", "op", "count", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        totals.forEach((kind, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                out.append(String.format("%-9s %10d %10.2f %10.2f %10.2f %10.2f%n", kind, histogram.getTotalCount(),
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue())));
+            }
+        });
+        return out.toString();
+    }
+
+    public void writeJson(Path file, Scenario scenario, int users, int rate, int durationSeconds) throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        json.append(String.format("\"scenario\":\"%s\",\"users\":%d,\"targetRate\":%d,\"durationSeconds\":%d,",
+                scenario, users, rate, durationSeconds));
+        json.append(String.format("\"successes\":%d,\"rejections\":%d,\"errors\":%d,\"retries\":%d,\"dropped\":%d,\"operations\":{",
+                successes.sum(), rejections.sum(), errors.sum(), retries.sum(), dropped.sum()));
+        String separator = "";
+        for (Map.Entry<Scenario.Kind, Histogram> entry : totals.entrySet()) {
+            Histogram h = entry.getValue();
+            if (h.getTotalCount() == 0) {
+                continue;
+            }
+            json.append(separator).append(String.format(
+                    "\"%s\":{\"count\":%d,\"throughput\":%.2f,\"p50Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}",
+                    entry.getKey(), h.getTotalCount(), (double) h.getTotalCount() / durationSeconds,
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                    millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue())));
+            separator = ",";
+        }
+        json.append("}}");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, json.toString());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Runs the same scenario across thread modes, Tomcat pool sizes and Hikari pool sizes,
+// booting a fresh application and database for each cell, then prints a comparison.
+// Virtual mode needs a Java 21 runtime: ./gradlew loadTestMatrix -PruntimeJava=21
+public class LoadTestMatrix {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions base = LoadTestOptions.parse(args);
+        String[] modes = base.get("modes", "platform,virtual").split(",");
+        if (Arrays.asList(modes).contains("virtual")) {
+            LoadTestRunner.requireVirtualThreads();
+        }
+        String[] threads = base.get("tomcat-threads", "50,200").split(",");
+        String[] pools = base.get("db-pools", "10,50").split(",");
+        String scenario = base.scenario().name().toLowerCase();
+        Path root = Path.of(base.reportDir(), "matrix");
+
+        List<String[]> rows = new ArrayList<>();
+        int failures = 0;
+        for (String mode : modes) {
+            // Tomcat's pool size is ignored once requests run on virtual threads
+            String[] threadCounts = "virtual".equals(mode) ? new String[] {"-"} : threads;
+            for (String threadCount : threadCounts) {
+                for (String pool : pools) {
+                    String cell = mode + "-t" + threadCount + "-p" + pool;
+                    LoadTestOptions options = base
+                            .with("report-dir", root.resolve(cell).toString())
+                            .with("app.spring.threads.virtual.enabled", String.valueOf("virtual".equals(mode)))
+                            .with("app.spring.datasource.hikari.maximum-pool-size", pool);
+                    if (!"-".equals(threadCount)) {
+                        options = options.with("app.server.tomcat.threads.max", threadCount);
+                    }
+                    System.out.printf("=== %s%n", cell);
+                    failures += new LoadTestRunner(options).run();
+                    rows.add(summarize(cell, root.resolve(cell).resolve(scenario + ".json")));
+                }
+            }
+        }
+
+        System.out.printf("%n%-22s %12s %10s %10s %10s %8s%n", "config", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors");
+        for (String[] row : rows) {
+            System.out.printf("%-22s %12s %10s %10s %10s %8s%n", (Object[]) row);
+        }
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Reports the slowest operation in the scenario, which is what limits it
+    private static String[] summarize(String cell, Path report) throws Exception {
+        JsonNode json = new ObjectMapper().readTree(Files.readString(report));
+        double throughput = 0;
+        JsonNode worst = null;
+        for (JsonNode operation : json.get("operations")) {
+            throughput += operation.get("throughput").asDouble();
+            if (worst == null || operation.get("p99Ms").asDouble() > worst.get("p99Ms").asDouble()) {
+                worst = operation;
+            }
+        }
+        long errors = json.get("errors").asLong() + json.get("dropped").asLong();
+        return new String[] {
+                cell,
+                String.format("%.1f", throughput),
+                worst == null ? "-" : String.format("%.2f", worst.get("p50Ms").asDouble()),
+                worst == null ? "-" : String.format("%.2f", worst.get("p99Ms").asDouble()),
+                worst == null ? "-" : String.format("%.2f", worst.get("p999Ms").asDouble()),
+                String.valueOf(errors)
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.loadtest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LoadTestOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.values.put(arg.substring(2), "true");
+            } else {
+                options.values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    public LoadTestOptions with(String key, String value) {
+        LoadTestOptions copy = new LoadTestOptions();
+        copy.values.putAll(values);
+        copy.values.put(key, value);
+        return copy;
+    }
+
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public Scenario scenario() {
+        return Scenario.valueOf(get("scenario", "UNIFORM").toUpperCase());
+    }
+
+    public int users() {
+        return Integer.parseInt(get("users", "200"));
+    }
+
+    // Target arrival rate in requests per second, independent of response times
+    public int rate() {
+        return Integer.parseInt(get("rate", "200"));
+    }
+
+    public int durationSeconds() {
+        return Integer.parseInt(get("duration", "60"));
+    }
+
+    public int warmupSeconds() {
+        return Integer.parseInt(get("warmup", "10"));
+    }
+
+    public int maxInFlight() {
+        return Integer.parseInt(get("max-in-flight", "2000"));
+    }
+
+    public int maxRetries() {
+        return Integer.parseInt(get("max-retries", "3"));
+    }
+
+    public String amount() {
+        return get("amount", "1.00");
+    }
+
+    public String dbDir() {
+        return get("db-dir", "build/loadtest-db");
+    }
+
+    public boolean keepDb() {
+        return Boolean.parseBoolean(get("keep-db", "false"));
+    }
+
+    // Spring profiles for the application under test, e.g. durable or durable,virtual-threads
+    public List<String> profiles() {
+        return Arrays.stream(get("profile", "").split(",")).map(String::trim).filter(p -> !p.isEmpty()).toList();
+    }
+
+    // After the measured run, keeps writes arriving and stops the database abruptly under them,
+    // then counts acknowledged transactions that did not survive the restart
+    public boolean crashCheck() {
+        return Boolean.parseBoolean(get("crash-check", "false"));
+    }
+
+    // How long the crash phase drives load before the database is stopped
+    public int crashAfterSeconds() {
+        return Integer.parseInt(get("crash-after-seconds", "5"));
+    }
+
+    // Spreads account 0, the HOT_RECEIVER target, over this many balance buckets; 0 leaves it ordinary
+    public int hotBuckets() {
+        return Integer.parseInt(get("hot-buckets", "0"));
+    }
+
+    public String reportDir() {
+        return get("report-dir", "build/results/loadtest");
+    }
+
+    public Map<String, String> appProperties() {
+        Map<String, String> properties = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (key.startsWith("app.")) {
+                properties.put(key.substring(4), value);
+            }
+        });
+        return properties;
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.service.HotAccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.FileSystemUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Boots the application against a file-backed H2 database, seeds accounts through
+// the public API and drives an open-model (fixed arrival rate) workload against it.
+public class LoadTestRunner {
+
+    private static final String PASSWORD = "LoadTest#2024";
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(8))
+            .build();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Sends and withdrawals answered 200, i.e. committed as far as the client is concerned
+    private final AtomicLong acknowledgedWrites = new AtomicLong();
+    private String baseUrl;
+    private String[] emails;
+    private String[] tokens;
+
+    public LoadTestRunner(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int exitCode = new LoadTestRunner(LoadTestOptions.parse(args)).run();
+        System.exit(exitCode);
+    }
+
+    // Spring silently stays on platform threads below 21, which would report a platform run as virtual
+    static void requireVirtualThreads() {
+        int feature = Runtime.version().feature();
+        if (feature < 21) {
+            throw new IllegalStateException("Virtual threads need a Java 21+ runtime, this is Java " + feature
+                    + "; run with -PruntimeJava=21 or leave virtual out of --modes");
+        }
+    }
+
+    public int run() throws Exception {
+        if (options.profiles().contains("virtual-threads")
+                || "true".equals(options.get("app.spring.threads.virtual.enabled", "false"))) {
+            requireVirtualThreads();
+        }
+        Path dbDir = Path.of(options.dbDir()).toAbsolutePath();
+        if (!options.keepDb()) {
+            FileSystemUtils.deleteRecursively(dbDir);
+        }
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "-1");
+        List<String> profiles = options.profiles();
+        if (!profiles.isEmpty()) {
+            properties.put("spring.profiles.active", String.join(",", profiles));
+        }
+        if (profiles.contains("durable")) {
+            // Keep the profile's own URL and settings, only pointed at this run's directory
+            properties.put("durable.db-path", dbDir.resolve("loadtest").toString());
+        } else {
+            properties.put("spring.datasource.url", "jdbc:h2:file:" + dbDir.resolve("loadtest") + ";DB_CLOSE_ON_EXIT=FALSE");
+        }
+        // Velocity limits would reject most synthetic traffic, and reconciliation would compete for CPU
+        properties.put("risk.enabled", "false");
+        properties.put("reconciliation.initial-delay-ms", String.valueOf(TimeUnit.DAYS.toMillis(1)));
+        properties.putAll(options.appProperties());
+
+        String url;
+        String username;
+        String password;
+        BigDecimal before;
+        long acknowledged;
+        int inFlightAtCrash;
+        LocalDateTime startedAt;
+        int exitCode;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .properties(properties)
+                .run()) {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            JdbcTemplate jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+
+            seed(options.users());
+            if (options.hotBuckets() > 0) {
+                String hotId = jdbc.queryForObject("select id from users where email = ?", String.class, emails[0]);
+                context.getBean(HotAccountService.class).enable(hotId, options.hotBuckets());
+                System.out.printf("Account 0 spread over %d balance buckets%n", options.hotBuckets());
+            }
+            before = totalBalance(jdbc);
+            startedAt = LocalDateTime.now();
+
+            LoadReport report = new LoadReport();
+            drive(options.warmupSeconds(), report);
+            report.startRecording();
+            drive(options.durationSeconds(), report);
+            awaitDrain();
+            report.stopRecording();
+
+            Scenario scenario = options.scenario();
+            System.out.print(report.render(scenario, options.users(), options.rate(), options.durationSeconds()));
+            report.writeJson(Path.of(options.reportDir(), scenario.name().toLowerCase() + ".json"),
+                    scenario, options.users(), options.rate(), options.durationSeconds());
+
+            exitCode = verifyConservation(jdbc, before, startedAt) ? 0 : 1;
+            if (!options.crashCheck()) {
+                return exitCode;
+            }
+            url = context.getEnvironment().getProperty("spring.datasource.url");
+            username = context.getEnvironment().getProperty("spring.datasource.username", "sa");
+            password = context.getEnvironment().getProperty("spring.datasource.password", "");
+
+            // Writes keep arriving at the configured rate while the database is stopped under them
+            Thread load = new Thread(() -> drive(options.crashAfterSeconds() + 2, new LoadReport()), "crash-load");
+            load.start();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(options.crashAfterSeconds()));
+            inFlightAtCrash = inFlight.get();
+            // Closes the database without flushing anything still buffered, as a killed process would
+            try {
+                jdbc.execute("SHUTDOWN IMMEDIATELY");
+            } catch (DataAccessException expected) {
+                // The connection goes down with the database
+            }
+            // Answers arriving after the crash still count; a write that commits once the pool
+            // reopens the files lands in the same database and is held to the same check
+            load.join();
+            awaitDrain();
+            acknowledged = acknowledgedWrites.get();
+        }
+        return verifyRecovery(url, username, password, before, acknowledged, inFlightAtCrash, startedAt) ? exitCode : 1;
+    }
+
+    // Every acknowledged write must be back, and whatever in-flight writes made it must have
+    // landed whole, which the conservation check over the reopened database shows
+    private boolean verifyRecovery(String url, String username, String password, BigDecimal before, long acknowledged,
+                                   int inFlightAtCrash, LocalDateTime since) throws IOException {
+        JdbcTemplate recovered = new JdbcTemplate(new DriverManagerDataSource(url, username, password));
+        long rows = recovered.queryForObject("select count(*) from transactions where created_at >= ?",
+                Long.class, Timestamp.valueOf(since));
+        long lost = Math.max(0, acknowledged - rows);
+        System.out.printf("Crash check: %d writes acknowledged, %d requests in flight at the crash, %d transactions recovered, %d lost%n",
+                acknowledged, inFlightAtCrash, rows, lost);
+        boolean conserved = verifyConservation(recovered, before, since);
+
+        Map<String, Object> figures = new LinkedHashMap<>();
+        figures.put("profiles", options.profiles());
+        figures.put("acknowledged", acknowledged);
+        figures.put("inFlightAtCrash", inFlightAtCrash);
+        figures.put("recovered", rows);
+        figures.put("lost", lost);
+        figures.put("conserved", conserved);
+        Path out = Path.of(options.reportDir(), "crash.json");
+        Files.createDirectories(out.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), figures);
+        return lost == 0 && conserved;
+    }
+
+    private void seed(int users) throws Exception {
+        if (users < 2) {
+            throw new IllegalArgumentException("At least two users are needed to transfer between");
+        }
+        emails = new String[users];
+        tokens = new String[users];
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[users];
+            for (int i = 0; i < users; i++) {
+                int index = i;
+                futures[i] = CompletableFuture.runAsync(() -> seedUser(index, runId), pool);
+            }
+            CompletableFuture.allOf(futures).join();
+        } finally {
+            pool.shutdown();
+        }
+        System.out.printf("Seeded %d users%n", users);
+    }
+
+    private void seedUser(int index, String runId) {
+        try {
+            String email = "load-" + runId + "-" + index + "@example.com";
+            Map<String, String> signup = new HashMap<>();
+            signup.put("email", email);
+            signup.put("password", PASSWORD);
+            signup.put("firstName", "Load");
+            signup.put("lastName", "User" + index);
+            signup.put("idPassport", runId + "-" + index);
+            signup.put("physicalAddress", index + " Test Street");
+            signup.put("cellNumber", runId + String.format("%07d", index));
+            post("/api/auth/signup", signup);
+
+            Map<String, String> signin = new HashMap<>();
+            signin.put("email", email);
+            signin.put("password", PASSWORD);
+            HttpResponse<String> response = post("/api/auth/signin", signin);
+            emails[index] = email;
+            tokens[index] = objectMapper.readTree(response.body()).get("token").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException("Seeding user " + index + " failed", e);
+        }
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    // Fires requests on a fixed schedule whether or not earlier ones have completed
+    private void drive(int seconds, LoadReport report) {
+        Scenario scenario = options.scenario();
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long sequence = 0; ; sequence++) {
+            long intended = start + sequence * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= options.maxInFlight()) {
+                report.recordDropped();
+                continue;
+            }
+            Scenario.Operation operation = scenario.next(sequence, options.users(), random);
+            inFlight.incrementAndGet();
+            execute(operation, intended, 0, report)
+                    .whenComplete((status, error) -> inFlight.decrementAndGet());
+        }
+    }
+
+    private CompletableFuture<Integer> execute(Scenario.Operation operation, long intended, int attempt, LoadReport report) {
+        return client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    int status = error != null ? -1 : response.statusCode();
+                    // 429/503 mean the request was not processed; connection failures are only safe to retry on reads
+                    boolean retryable = status == 429 || status == 503
+                            || (status == -1 && operation.kind() == Scenario.Kind.HISTORY);
+                    return retryable && attempt < options.maxRetries() ? null : status;
+                })
+                .thenCompose(status -> {
+                    if (status != null) {
+                        if (status == 200 && operation.kind() != Scenario.Kind.HISTORY) {
+                            acknowledgedWrites.incrementAndGet();
+                        }
+                        report.record(operation.kind(), intended, status);
+                        return CompletableFuture.completedFuture(status);
+                    }
+                    report.recordRetry();
+                    long backoff = 10L << attempt;
+                    return CompletableFuture.supplyAsync(() -> null,
+                                    CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> execute(operation, intended, attempt + 1, report));
+                });
+    }
+
+    private HttpRequest request(Scenario.Operation operation) {
+        String path = switch (operation.kind()) {
+            case SEND -> "/api/transactions/send?receiverEmail=" + emails[operation.counterparty()]
+                    + "&amount=" + options.amount();
+            case WITHDRAW -> "/api/transactions/withdraw/partial?amount=" + options.amount();
+            case HISTORY -> "/api/transactions/history";
+        };
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + tokens[operation.user()])
+                .timeout(Duration.ofSeconds(30));
+        return operation.kind() == Scenario.Kind.HISTORY
+                ? builder.GET().build()
+                : builder.POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private void awaitDrain() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    // Hot accounts keep part of their balance in buckets; both count, as in TrafficReplayer.balances.
+    // The durable profile's file database keeps hot accounts from earlier runs.
+    private static BigDecimal totalBalance(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("select coalesce(sum(balance), 0) from users", BigDecimal.class)
+                .add(jdbc.queryForObject("select coalesce(sum(amount), 0) from balance_buckets", BigDecimal.class));
+    }
+
+    // Money only leaves the system as fees or withdrawals; everything else must net to zero
+    private static boolean verifyConservation(JdbcTemplate jdbc, BigDecimal before, LocalDateTime startedAt) {
+        BigDecimal after = totalBalance(jdbc);
+        BigDecimal outflow = jdbc.queryForObject(
+                "select coalesce(sum(coalesce(commission_amount, 0) + coalesce(vat_amount, 0)"
+                        + " + case when transaction_type in ('FULL_WITHDRAWAL', 'PARTIAL_WITHDRAWAL') then amount else 0 end), 0)"
+                        + " from transactions where created_at >= ?",
+                BigDecimal.class, Timestamp.valueOf(startedAt));
+        BigDecimal expected = before.subtract(outflow);
+        if (expected.compareTo(after) != 0) {
+            System.out.printf("Balance NOT conserved: before %s, outflow %s, expected %s, actual %s%n",
+                    before, outflow, expected, after);
+            return false;
+        }
+        System.out.printf("Balance conserved: %s -> %s (fees and withdrawals %s)%n", before, after, outflow);
+        return true;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Latency per endpoint as captured and as replayed, plus each request's outcome and the final
+// balances. The JSON form doubles as the baseline a later replay is compared against.
+public class ReplayReport {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int MAX_EXAMPLES = 20;
+    // UUIDs, numeric ids and yyyy-MM months collapse so endpoints group by shape
+    private static final Pattern ID_SEGMENT = Pattern.compile("/([0-9a-fA-F-]{32,36}|\\d{4}-\\d{2}|\\d+)(?=/|$)");
+
+    private final Map<String, Histogram> captured = new TreeMap<>();
+    private final Map<String, Histogram> replayed = new ConcurrentHashMap<>();
+    private final int[] capturedStatuses;
+    private final int[] statuses;
+    private final String[] codes;
+    private final List<String> captureMismatches = new ArrayList<>();
+    private Map<String, BigDecimal> balances = Map.of();
+    private double elapsedSeconds;
+
+    public ReplayReport(int requests) {
+        capturedStatuses = new int[requests];
+        statuses = new int[requests];
+        codes = new String[requests];
+    }
+
+    public static String endpoint(String method, String path) {
+        return method + " " + ID_SEGMENT.matcher(path).replaceAll("/{}");
+    }
+
+    public void recordCaptured(int sequence, String endpoint, long durationNanos, int status) {
+        captured.computeIfAbsent(endpoint, e -> new Histogram(MAX_LATENCY_NANOS, 3))
+                .recordValue(Math.min(durationNanos, MAX_LATENCY_NANOS));
+        capturedStatuses[sequence] = status;
+    }
+
+    // Latency runs from the intended send time, so a replay that falls behind shows it
+    public void recordReplayed(int sequence, String endpoint, long intendedStartNanos, int status, String code) {
+        replayed.computeIfAbsent(endpoint, e -> new ConcurrentHistogram(MAX_LATENCY_NANOS, 3))
+                .recordValue(Math.min(System.nanoTime() - intendedStartNanos, MAX_LATENCY_NANOS));
+        statuses[sequence] = status;
+        codes[sequence] = code;
+    }
+
+    public void finish(double elapsedSeconds, Map<String, BigDecimal> balances) {
+        this.elapsedSeconds = elapsedSeconds;
+        this.balances = balances;
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] != capturedStatuses[i] && captureMismatches.size() < MAX_EXAMPLES) {
+                captureMismatches.add("#" + i + " captured " + capturedStatuses[i] + ", replayed " + statuses[i]);
+            }
+        }
+    }
+
+    public long captureMismatchCount() {
+        long count = 0;
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] != capturedStatuses[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public String render(double speed) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Replayed %d requests in %.1fs at %s (%.1f req/s)%n", statuses.length, elapsedSeconds,
+                speed > 0 ? speed + "x" : "full speed", statuses.length / Math.max(elapsedSeconds, 0.001)));
+        out.append(String.format("%-45s %8s %12s %12s %12s %12s %12s %12s%n", "endpoint", "count",
+                "cap p50 ms", "cap p99 ms", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        captured.forEach((endpoint, before) -> {
+            Histogram after = replayed.get(endpoint);
+            out.append(String.format("%-45s %8d %12.2f %12.2f", endpoint, before.getTotalCount(),
+                    millis(before.getValueAtPercentile(50)), millis(before.getValueAtPercentile(99))));
+            if (after != null) {
+                out.append(String.format(" %12.2f %12.2f %12.2f %12.2f", millis(after.getValueAtPercentile(50)),
+                        millis(after.getValueAtPercentile(99)), millis(after.getValueAtPercentile(99.9)),
+                        millis(after.getMaxValue())));
+            }
+            out.append(System.lineSeparator());
+        });
+        out.append(String.format("Status differs from capture on %d request(s)%n", captureMismatchCount()));
+        captureMismatches.forEach(line -> out.append("  ").append(line).append(System.lineSeparator()));
+        return out.toString();
+    }
+
+    public void writeJson(Path file, ObjectMapper objectMapper, double speed) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("requests", statuses.length);
+        root.put("speed", speed);
+        root.put("elapsedSeconds", elapsedSeconds);
+        root.put("captureMismatches", captureMismatchCount());
+        ObjectNode endpoints = root.putObject("endpoints");
+        captured.forEach((endpoint, before) -> {
+            ObjectNode node = endpoints.putObject(endpoint);
+            node.put("count", before.getTotalCount());
+            node.put("capturedP50Ms", millis(before.getValueAtPercentile(50)));
+            node.put("capturedP99Ms", millis(before.getValueAtPercentile(99)));
+            Histogram after = replayed.get(endpoint);
+            if (after != null) {
+                node.put("p50Ms", millis(after.getValueAtPercentile(50)));
+                node.put("p99Ms", millis(after.getValueAtPercentile(99)));
+                node.put("p999Ms", millis(after.getValueAtPercentile(99.9)));
+                node.put("maxMs", millis(after.getMaxValue()));
+            }
+        });
+        ArrayNode statusArray = root.putArray("statuses");
+        ArrayNode codeArray = root.putArray("codes");
+        for (int i = 0; i < statuses.length; i++) {
+            statusArray.add(statuses[i]);
+            codeArray.add(codes[i]);
+        }
+        ObjectNode balanceNode = root.putObject("balances");
+        balances.forEach((userId, balance) -> balanceNode.put(userId, balance.toPlainString()));
+        Files.createDirectories(file.getParent());
+        objectMapper.writeValue(file.toFile(), root);
+    }
+
+    // Differences against an earlier replay of the same capture; zero means both runs agree
+    public int compareWith(JsonNode baseline, StringBuilder out) {
+        int differences = 0;
+        List<String> examples = new ArrayList<>();
+        if (baseline.path("requests").asInt() != statuses.length) {
+            out.append(String.format("Baseline replayed %d requests, this run %d%n", baseline.path("requests").asInt(), statuses.length));
+            return 1;
+        }
+        JsonNode baseStatuses = baseline.path("statuses");
+        JsonNode baseCodes = baseline.path("codes");
+        for (int i = 0; i < statuses.length; i++) {
+            String baseCode = baseCodes.path(i).isNull() ? null : baseCodes.path(i).asText();
+            if (baseStatuses.path(i).asInt() != statuses[i] || !Objects.equals(baseCode, codes[i])) {
+                differences++;
+                if (examples.size() < MAX_EXAMPLES) {
+                    examples.add(String.format("#%d baseline %d %s, now %d %s", i, baseStatuses.path(i).asInt(),
+                            baseCode, statuses[i], codes[i]));
+                }
+            }
+        }
+        Map<String, BigDecimal> baseBalances = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = baseline.path("balances").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            baseBalances.put(entry.getKey(), new BigDecimal(entry.getValue().asText()));
+        }
+        Map<String, BigDecimal> all = new TreeMap<>(baseBalances);
+        balances.forEach(all::putIfAbsent);
+        for (String userId : all.keySet()) {
+            BigDecimal before = baseBalances.get(userId);
+            BigDecimal after = balances.get(userId);
+            if (before == null || after == null || before.compareTo(after) != 0) {
+                differences++;
+                if (examples.size() < MAX_EXAMPLES) {
+                    examples.add(String.format("balance %s baseline %s, now %s", userId, before, after));
+                }
+            }
+        }
+        out.append(String.format("%d difference(s) from baseline%n", differences));
+        examples.forEach(line -> out.append("  ").append(line).append(System.lineSeparator()));
+        return differences;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
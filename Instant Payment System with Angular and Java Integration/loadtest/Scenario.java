@@ -0,0 +1,73 @@
+package com.example.demo.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public enum Scenario {
+
+    // Random sender pays a random other account
+    UNIFORM {
+        @Override
+        Operation next(long sequence, int users, ThreadLocalRandom random) {
+            int sender = random.nextInt(users);
+            return Operation.send(sender, otherThan(sender, users, random));
+        }
+    },
+    // Every account pays account 0, serializing on a single receiver row
+    HOT_RECEIVER {
+        @Override
+        Operation next(long sequence, int users, ThreadLocalRandom random) {
+            return Operation.send(1 + random.nextInt(users - 1), 0);
+        }
+    },
+    // Accounts 0 and 1 pay each other, so every write contends on both rows
+    PING_PONG {
+        @Override
+        Operation next(long sequence, int users, ThreadLocalRandom random) {
+            return sequence % 2 == 0 ? Operation.send(0, 1) : Operation.send(1, 0);
+        }
+    },
+    // Dashboard-like traffic: mostly history reads with transfers and withdrawals mixed in
+    MIXED {
+        @Override
+        Operation next(long sequence, int users, ThreadLocalRandom random) {
+            int user = random.nextInt(users);
+            int roll = random.nextInt(100);
+            if (roll < 70) {
+                return Operation.history(user);
+            }
+            if (roll < 95) {
+                return Operation.send(user, otherThan(user, users, random));
+            }
+            return Operation.withdraw(user);
+        }
+    },
+    WITHDRAWALS {
+        @Override
+        Operation next(long sequence, int users, ThreadLocalRandom random) {
+            return Operation.withdraw(random.nextInt(users));
+        }
+    };
+
+    abstract Operation next(long sequence, int users, ThreadLocalRandom random);
+
+    private static int otherThan(int user, int users, ThreadLocalRandom random) {
+        int other = random.nextInt(users - 1);
+        return other >= user ? other + 1 : other;
+    }
+
+    public enum Kind { SEND, WITHDRAW, HISTORY }
+
+    public record Operation(Kind kind, int user, int counterparty) {
+        static Operation send(int sender, int receiver) {
+            return new Operation(Kind.SEND, sender, receiver);
+        }
+
+        static Operation withdraw(int user) {
+            return new Operation(Kind.WITHDRAW, user, -1);
+        }
+
+        static Operation history(int user) {
+            return new Operation(Kind.HISTORY, user, -1);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Launches the packaged application as a child process and measures the time from
+// process start to the first successful /api/auth/signin, for the default startup
+// and for the fast-startup profile with AOT and the CDS archive.
+public class StartupProbe {
+
+    private static final String SIGNUP = "{\"email\":\"probe@example.com\",\"password\":\"Probe#2024\",\"firstName\":\"Start\","
+            + "\"lastName\":\"Probe\",\"idPassport\":\"PROBE0001\",\"physicalAddress\":\"1 Probe Road\",\"cellNumber\":\"0000000001\"}";
+    private static final String SIGNIN = "{\"email\":\"probe@example.com\",\"password\":\"Probe#2024\"}";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        String java = options.get("java", Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        File workDir = new File(options.get("work-dir", "build/extracted"));
+        String jar = options.get("jar", "instant-payment.jar");
+        int runs = Integer.parseInt(options.get("runs", "5"));
+        int port = Integer.parseInt(options.get("port", "18080"));
+
+        List<String> baseline = List.of(java, "-jar", jar, "--server.port=" + port, "--management.server.port=-1");
+        List<String> optimized = List.of(java, "-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true",
+                "-jar", jar, "--spring.profiles.active=fast-startup", "--server.port=" + port, "--management.server.port=-1");
+
+        StartupProbe probe = new StartupProbe();
+        long[] before = probe.measure(baseline, workDir, port, runs);
+        long[] after = probe.measure(optimized, workDir, port, runs);
+
+        String report = String.format("{\"runs\":%d,\"baselineMs\":%s,\"fastStartupMs\":%s,\"baselineMedianMs\":%d,\"fastStartupMedianMs\":%d}",
+                runs, Arrays.toString(before), Arrays.toString(after), median(before), median(after));
+        Path out = Path.of(options.get("report", "build/results/startup/report.json"));
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, report);
+        System.out.printf("Time to first successful signin (median of %d): default %d ms, fast-startup %d ms%n",
+                runs, median(before), median(after));
+    }
+
+    private long[] measure(List<String> command, File workDir, int port, int runs) throws Exception {
+        long[] samples = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            samples[i] = timeToFirstSignin(command, workDir, port);
+            System.out.printf("%s run %d: %d ms%n", command.contains("-Dspring.aot.enabled=true") ? "fast-startup" : "default", i + 1, samples[i]);
+        }
+        return samples;
+    }
+
+    private long timeToFirstSignin(List<String> command, File workDir, int port) throws Exception {
+        Process process = new ProcessBuilder(new ArrayList<>(command))
+                .directory(workDir)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        long start = System.nanoTime();
+        try {
+            String base = "http://localhost:" + port;
+            // The in-memory database starts empty, so the probe account is created first
+            awaitStatus(base + "/api/auth/signup", SIGNUP, process);
+            awaitStatus(base + "/api/auth/signin", SIGNIN, process);
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private void awaitStatus(String url, String body, Process process) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue());
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            } catch (IOException e) {
+                // connection reset during startup
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No successful response from " + url);
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
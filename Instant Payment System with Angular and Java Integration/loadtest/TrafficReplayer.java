@@ -0,0 +1,295 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.CaptureSummary;
+import com.example.demo.dto.CapturedRequest;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.service.CaptureFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Replays captured traffic against a fresh instance restored from the capture's database
+// snapshot, at the original pace or N times faster, and reports latency per endpoint next to
+// the captured latency. Requests from the same user are sent in their captured order; different
+// users overlap as they did in production. Each run writes a report that can be passed as
+// --baseline to the next, which then fails on any difference in outcomes or final balances.
+//   ./gradlew replay -Preplay.capture=build/capture -Preplay.speed=4
+//   ./gradlew replay -Preplay.capture=build/capture -Preplay.baseline=build/results/replay/replay-20261019-101500.json
+public class TrafficReplayer {
+
+    private static final DateTimeFormatter REPORT_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(8))
+            .build();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    private String baseUrl;
+
+    public TrafficReplayer(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int exitCode = new TrafficReplayer(LoadTestOptions.parse(args)).run();
+        System.exit(exitCode);
+    }
+
+    public int run() throws Exception {
+        List<Path> files = captureFiles(Path.of(options.get("capture", "build/capture")));
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No " + CaptureFile.EXTENSION + " files at " + options.get("capture", "build/capture"));
+        }
+        Path snapshot = options.get("snapshot", null) != null ? Path.of(options.get("snapshot", null)) : null;
+        List<CapturedRequest> requests = new ArrayList<>();
+        long firstStartMillis = -1;
+        long droppedAtCapture = 0;
+        for (Path file : files) {
+            try (CaptureFile.Reader reader = new CaptureFile.Reader(file)) {
+                if (firstStartMillis < 0) {
+                    firstStartMillis = reader.startEpochMillis();
+                    if (snapshot == null && reader.snapshotName() != null) {
+                        snapshot = file.resolveSibling(reader.snapshotName());
+                    }
+                }
+                // Records are written as requests complete; put them back in arrival order
+                long shift = TimeUnit.MILLISECONDS.toNanos(reader.startEpochMillis() - firstStartMillis);
+                List<CapturedRequest> fromFile = new ArrayList<>();
+                for (CapturedRequest request = reader.next(); request != null; request = reader.next()) {
+                    fromFile.add(shifted(request, shift));
+                }
+                fromFile.sort(Comparator.comparingLong(CapturedRequest::offsetNanos));
+                requests.addAll(fromFile);
+            }
+            droppedAtCapture += reportDrops(file);
+        }
+        System.out.printf("Loaded %d requests from %d file(s)%n", requests.size(), files.size());
+        if (droppedAtCapture > 0) {
+            System.out.printf("WARNING: %d captured requests were dropped at capture time; outcomes and balances "
+                    + "will not match production one for one%n", droppedAtCapture);
+        }
+
+        Path dbDir = Path.of(options.dbDir()).toAbsolutePath();
+        FileSystemUtils.deleteRecursively(dbDir);
+        Files.createDirectories(dbDir);
+        String url = "jdbc:h2:file:" + dbDir.resolve("replay") + ";DB_CLOSE_ON_EXIT=FALSE";
+        if (snapshot != null) {
+            restore(url, snapshot);
+        } else {
+            System.out.println("No snapshot given or recorded; replaying against an empty database");
+        }
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "-1");
+        properties.put("spring.datasource.url", url);
+        // Only the captured stream may change state, and the replay itself must not be captured
+        properties.put("capture.enabled", "false");
+        properties.put("standing-orders.enabled", "false");
+        properties.put("notifications.enabled", "false");
+        properties.put("reconciliation.initial-delay-ms", String.valueOf(TimeUnit.DAYS.toMillis(1)));
+        properties.putAll(options.appProperties());
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .properties(properties)
+                .run()) {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            JdbcTemplate jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+            JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+            Map<String, String> emails = new HashMap<>();
+            jdbc.query("select id, email from users", rs -> {
+                emails.put(rs.getString(1), rs.getString(2));
+            });
+
+            double speed = Double.parseDouble(options.get("speed", "1"));
+            ReplayReport report = new ReplayReport(requests.size());
+            long start = System.nanoTime();
+            drive(requests, speed, report, userId -> {
+                String email = emails.get(userId);
+                return email == null ? null : tokens.computeIfAbsent(userId, id -> jwtUtil.generateToken(email, id));
+            });
+            awaitDrain();
+            report.finish((System.nanoTime() - start) / 1e9, balances(jdbc));
+
+            System.out.print(report.render(speed));
+            Path reportFile = Path.of(options.reportDir(), "replay-" + LocalDateTime.now().format(REPORT_STAMP) + ".json");
+            report.writeJson(reportFile, objectMapper, speed);
+            System.out.printf("Report written to %s%n", reportFile);
+
+            String baseline = options.get("baseline", null);
+            if (baseline == null) {
+                return 0;
+            }
+            StringBuilder out = new StringBuilder();
+            int differences = report.compareWith(objectMapper.readTree(Path.of(baseline).toFile()), out);
+            System.out.print(out);
+            return differences == 0 ? 0 : 1;
+        }
+    }
+
+    private static List<Path> captureFiles(Path location) throws IOException {
+        if (Files.isRegularFile(location)) {
+            return List.of(location);
+        }
+        if (!Files.isDirectory(location)) {
+            return List.of();
+        }
+        // Names carry the start time, so name order is time order
+        try (Stream<Path> files = Files.list(location)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(CaptureFile.EXTENSION)).sorted().toList();
+        }
+    }
+
+    // Files without a summary were still open or cut short when copied; their drops are unknown
+    private long reportDrops(Path file) throws IOException {
+        Path summaryFile = CaptureSummary.pathFor(file);
+        if (!Files.exists(summaryFile)) {
+            System.out.printf("%s: no summary, drop counts unknown%n", file.getFileName());
+            return 0;
+        }
+        CaptureSummary summary = objectMapper.readValue(summaryFile.toFile(), CaptureSummary.class);
+        if (summary.dropped() > 0) {
+            System.out.printf("%s: %d dropped on a full queue, %d arrived before the snapshot%n",
+                    file.getFileName(), summary.droppedQueueFull(), summary.droppedBeforeSnapshot());
+        }
+        return summary.dropped();
+    }
+
+    private static CapturedRequest shifted(CapturedRequest request, long shiftNanos) {
+        return new CapturedRequest(request.offsetNanos() + shiftNanos, request.durationNanos(), request.status(),
+                request.method(), request.path(), request.userId(), request.parameters(), request.body());
+    }
+
+    // Loads the snapshot before the application starts, so Hibernate finds the schema in place
+    private static void restore(String url, Path snapshot) throws SQLException {
+        String compression = snapshot.getFileName().toString().endsWith(".gz") ? " COMPRESSION GZIP" : "";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM '" + snapshot.toAbsolutePath().toString().replace("'", "''") + "'" + compression);
+        }
+        System.out.printf("Restored %s%n", snapshot);
+    }
+
+    private void drive(List<CapturedRequest> requests, double speed, ReplayReport report,
+                       Function<String, String> tokenFor) {
+        int maxInFlight = options.maxInFlight();
+        Map<String, CompletableFuture<Void>> lastByUser = new HashMap<>();
+        long start = System.nanoTime();
+        for (int sequence = 0; sequence < requests.size(); sequence++) {
+            CapturedRequest request = requests.get(sequence);
+            String endpoint = ReplayReport.endpoint(request.method(), request.path());
+            report.recordCaptured(sequence, endpoint, request.durationNanos(), request.status());
+
+            long intended = speed > 0 ? start + (long) (request.offsetNanos() / speed) : System.nanoTime();
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Unlike the load test nothing is dropped: every request is needed for the comparison
+            while (inFlight.get() >= maxInFlight) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            int index = sequence;
+            String token = request.userId() == null ? null : tokenFor.apply(request.userId());
+            inFlight.incrementAndGet();
+            CompletableFuture<Void> previous = request.userId() == null
+                    ? CompletableFuture.completedFuture(null)
+                    : lastByUser.getOrDefault(request.userId(), CompletableFuture.completedFuture(null));
+            CompletableFuture<Void> sent = previous
+                    .thenCompose(ignored -> client.sendAsync(build(request, token), HttpResponse.BodyHandlers.ofString()))
+                    .handle((response, error) -> {
+                        int status = error != null ? -1 : response.statusCode();
+                        report.recordReplayed(index, endpoint, intended, status, status >= 400 ? errorCode(response.body()) : null);
+                        inFlight.decrementAndGet();
+                        return null;
+                    });
+            if (request.userId() != null) {
+                lastByUser.put(request.userId(), sent);
+            }
+        }
+    }
+
+    private HttpRequest build(CapturedRequest request, String token) {
+        StringBuilder uri = new StringBuilder(baseUrl).append(request.path());
+        char separator = '?';
+        for (CapturedRequest.Parameter parameter : request.parameters()) {
+            uri.append(separator).append(URLEncoder.encode(parameter.name(), StandardCharsets.UTF_8))
+                    .append('=').append(URLEncoder.encode(parameter.value(), StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri.toString()))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        if (request.body() != null) {
+            builder.header("Content-Type", "application/json");
+            return builder.method(request.method(), HttpRequest.BodyPublishers.ofString(request.body())).build();
+        }
+        return builder.method(request.method(), HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private String errorCode(String body) {
+        try {
+            return objectMapper.readTree(body).path("code").asText(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void awaitDrain() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    // Hot accounts keep part of their balance in buckets; both count
+    private static Map<String, BigDecimal> balances(JdbcTemplate jdbc) {
+        Map<String, BigDecimal> balances = new TreeMap<>();
+        jdbc.query("select u.id, u.balance + coalesce((select sum(b.amount) from balance_buckets b where b.user_id = u.id), 0) "
+                + "from users u", rs -> {
+            balances.put(rs.getString(1), rs.getBigDecimal(2));
+        });
+        return balances;
+    }
+}